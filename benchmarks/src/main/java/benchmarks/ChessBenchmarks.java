@@ -0,0 +1,130 @@
+package benchmarks;
+
+import chess.*;
+import chess.moves.IntMoveList;
+import chess.moves.LegalMoves;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the chess rules in the shared module. Every benchmark runs once per fixture position.
+ * <p>
+ * Build with "mvn -pl benchmarks -am package -DskipTests", then run
+ * "java -jar benchmarks/target/benchmarks-jar-with-dependencies.jar" (add a regex to pick benchmarks, or -h for options).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessBenchmarks {
+    private static final Gson GSON = new Gson();
+
+    @Param
+    public Fixtures fixture;
+
+    private ChessGame game;
+    private ChessBoard board;
+    private ChessBoard sameBoard;
+    private ChessGame.TeamColor turn;
+    private String json;
+    private final IntMoveList moves = new IntMoveList();
+    private final List<ChessPosition> occupied = new ArrayList<>();
+    private final List<ChessPosition> toMove = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        game = fixture.create();
+        board = game.getBoard();
+        sameBoard = fixture.create().getBoard();
+        turn = game.getTeamTurn();
+        json = GSON.toJson(game);
+
+        occupied.clear();
+        toMove.clear();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                ChessPiece piece = board.getPiece(position);
+                if (piece != null) {
+                    occupied.add(position);
+                    if (piece.getTeamColor() == turn) {
+                        toMove.add(position);
+                    }
+                }
+            }
+        }
+    }
+
+    /* Pseudo-legal moves of every piece on the board */
+    @Benchmark
+    public void pieceMoves(Blackhole bh) {
+        for (ChessPosition position : occupied) {
+            bh.consume(board.getPiece(position).pieceMoves(board, position));
+        }
+    }
+
+    /* Legal moves of every piece belonging to the team to move */
+    @Benchmark
+    public void validMoves(Blackhole bh) {
+        for (ChessPosition position : toMove) {
+            bh.consume(game.validMoves(position));
+        }
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(turn);
+    }
+
+    /*
+     * The work getStatus does when it has no status cached: a check test and a full legal move generation, which
+     * is what isInCheckmate and isInStalemate cost on a new position. Called directly, since ChessGame keeps the
+     * last status it worked out and calling it again would only measure the lookup.
+     */
+    @Benchmark
+    public boolean statusUncached(Blackhole bh) {
+        boolean inCheck = board.isSquareAttacked(board.getKingPos(turn), turn.opponent());
+        moves.clear();
+        LegalMoves.generate(moves, board, turn, -1L);
+        bh.consume(inCheck);
+        return moves.isEmpty();
+    }
+
+    /* Checkmate and stalemate once the status has been worked out, which is only a key lookup */
+    @Benchmark
+    public boolean isInCheckmateCached() {
+        return game.isInCheckmate(turn);
+    }
+
+    @Benchmark
+    public int boardHashCode() {
+        return board.hashCode();
+    }
+
+    @Benchmark
+    public boolean boardEquals() {
+        return board.equals(sameBoard);
+    }
+
+    @Benchmark
+    public String gsonSerialize() {
+        return GSON.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame gsonDeserialize() {
+        return GSON.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame gsonRoundTrip() {
+        return GSON.fromJson(GSON.toJson(game), ChessGame.class);
+    }
+}
@@ -0,0 +1,198 @@
+package benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import websocket.commands.UserGameCommand;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test for a running server: holds many websocket sessions open while sending bursts of blocking HTTP requests
+ * (logins, which hash a password, and game lists, which query the database), then reports how many sessions
+ * connected and how the requests fared. Run it against the server started with and without --virtual-threads to
+ * compare the two.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks-jar-with-dependencies.jar benchmarks.ConnectionLoadTest \
+ *     [url=http://localhost:8080] [sessions=10000] [requests=5000] [concurrency=1000]
+ * </pre>
+ */
+public class ConnectionLoadTest {
+    private static final Gson GSON = new Gson();
+    private static final int SESSIONS_PER_GAME = 10;
+    private static final int MAX_PENDING_HANDSHAKES = 200;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String url;
+    private final HttpClient client;
+    private final String password = UUID.randomUUID().toString();
+    private String username;
+    private String authToken;
+
+    private ConnectionLoadTest(String url) {
+        this.url = url;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(TIMEOUT)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "http://localhost:8080";
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+        var test = new ConnectionLoadTest(url);
+        test.register();
+        List<WebSocket> sockets = test.openSessions(sessions);
+        test.sendRequests(requests, concurrency);
+        for (WebSocket socket : sockets) {
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+        }
+        System.exit(0);
+    }
+
+    private void register() throws Exception {
+        username = "load-" + UUID.randomUUID();
+        var body = GSON.toJson(Map.of("username", username, "password", password, "email", username + "@test"));
+        var response = send(HttpRequest.newBuilder(URI.create(url + "/user")).POST(HttpRequest.BodyPublishers.ofString(body)));
+        authToken = GSON.fromJson(response.body(), JsonObject.class).get("authToken").getAsString();
+    }
+
+    private int createGame(int number) throws Exception {
+        var body = GSON.toJson(Map.of("gameName", "load test " + number));
+        var response = send(HttpRequest.newBuilder(URI.create(url + "/game"))
+                .header("authorization", authToken)
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        return GSON.fromJson(response.body(), JsonObject.class).get("gameID").getAsInt();
+    }
+
+    /**
+     * Opens the sessions, spread over enough games that the join notifications stay small, and waits for each to
+     * be sent its game
+     */
+    private List<WebSocket> openSessions(int count) throws Exception {
+        int[] games = new int[(count + SESSIONS_PER_GAME - 1) / SESSIONS_PER_GAME];
+        for (int i = 0; i < games.length; i++) {
+            games[i] = createGame(i);
+        }
+
+        var wsUri = URI.create(url.replaceFirst("^http", "ws") + "/ws");
+        var sockets = new ConcurrentLinkedQueue<WebSocket>();
+        var loaded = new CountDownLatch(count);
+        var failed = new AtomicInteger();
+        var pending = new Semaphore(MAX_PENDING_HANDSHAKES);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            pending.acquire();
+            var command = new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, games[i % games.length]);
+            client.newWebSocketBuilder()
+                    .connectTimeout(TIMEOUT)
+                    .buildAsync(wsUri, new LoadGameListener(loaded))
+                    .whenComplete((socket, e) -> {
+                        pending.release();
+                        if (e != null) {
+                            failed.incrementAndGet();
+                            loaded.countDown();
+                            return;
+                        }
+                        sockets.add(socket);
+                        socket.sendText(GSON.toJson(command), true);
+                    });
+        }
+        boolean allLoaded = loaded.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Sessions: %d open, %d failed, %d never sent their game, in %.1f s%n",
+                sockets.size(), failed.get(), allLoaded ? 0 : loaded.getCount(), seconds);
+        return new ArrayList<>(sockets);
+    }
+
+    /**
+     * Sends logins and game lists, half of each, keeping concurrency requests in flight at once
+     */
+    private void sendRequests(int count, int concurrency) throws Exception {
+        var login = GSON.toJson(Map.of("username", username, "password", password));
+        var limit = new Semaphore(concurrency);
+        long[] loginNanos = new long[count / 2];
+        long[] listNanos = new long[count - count / 2];
+        var errors = new AtomicInteger();
+        var done = new CountDownLatch(count);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            limit.acquire();
+            boolean isLogin = i % 2 == 0;
+            var request = isLogin
+                    ? HttpRequest.newBuilder(URI.create(url + "/session")).POST(HttpRequest.BodyPublishers.ofString(login))
+                    : HttpRequest.newBuilder(URI.create(url + "/game")).header("authorization", authToken).GET();
+            long[] latencies = isLogin ? loginNanos : listNanos;
+            int slot = i / 2;
+            long sent = System.nanoTime();
+            client.sendAsync(request.timeout(TIMEOUT).build(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        latencies[slot] = System.nanoTime() - sent;
+                        if (e != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        limit.release();
+                        done.countDown();
+                    });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Requests: %d in %.1f s (%.0f/s), %d errors, %d in flight%n",
+                count, seconds, count / seconds, errors.get(), concurrency);
+        printLatencies("  login    ", loginNanos);
+        printLatencies("  game list", listNanos);
+    }
+
+    private static void printLatencies(String label, long[] nanos) {
+        if (nanos.length == 0) {
+            return;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%s p50 %.0f ms, p99 %.0f ms, max %.0f ms%n", label,
+                nanos[nanos.length / 2] / 1e6, nanos[(int) (nanos.length * 0.99)] / 1e6, nanos[nanos.length - 1] / 1e6);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        var response = client.send(request.timeout(TIMEOUT).build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.build().uri() + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+
+    /**
+     * Counts down once the server sends the session its game, and ignores every message after that
+     */
+    private static class LoadGameListener implements WebSocket.Listener {
+        private final CountDownLatch loaded;
+        private boolean counted;
+
+        LoadGameListener(CountDownLatch loaded) {
+            this.loaded = loaded;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            if (!counted && data.toString().contains("LOAD_GAME")) {
+                counted = true;
+                loaded.countDown();
+            }
+            webSocket.request(1);
+            return null;
+        }
+    }
+}
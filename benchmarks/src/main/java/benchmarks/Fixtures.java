@@ -0,0 +1,54 @@
+package benchmarks;
+
+import chess.*;
+
+/**
+ * The positions every benchmark runs over. Opening and middlegame positions are reached by playing moves from the
+ * starting position, so castling and en passant flags are exactly what a real game would have.
+ */
+public enum Fixtures {
+    /* Ruy Lopez after 3...a6 */
+    OPENING("e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6"),
+    /* Quiet Italian game with both sides castled and most pieces still on the board */
+    MIDDLEGAME("e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "f8c5", "c2c3", "g8f6", "d2d3", "d7d6",
+            "e1g1", "e8g8", "f1e1", "a7a6", "c4b3", "c5a7", "b1d2", "c8e6", "d2f1", "h7h6"),
+    /* Rook and pawns endgame (perft position 3) */
+    ENDGAME();
+
+    private static final String ENDGAME_FEN = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+
+    private final String[] moves;
+
+    Fixtures(String... moves) {
+        this.moves = moves;
+    }
+
+    /**
+     * @return a new game in this position, with the team to move next set
+     */
+    public ChessGame create() {
+        if (this == ENDGAME) {
+            return ChessGame.fromFen(ENDGAME_FEN);
+        }
+        ChessGame game = new ChessGame();
+        try {
+            for (String move : moves) {
+                game.makeMove(parseMove(move));
+            }
+        } catch (InvalidMoveException e) {
+            throw new IllegalStateException("Fixture " + name() + " has an illegal move", e);
+        }
+        return game;
+    }
+
+    /**
+     * Parses a move in long algebraic notation (e.g. "e2e4")
+     */
+    private static ChessMove parseMove(String move) {
+        return new ChessMove(parseSquare(move.substring(0, 2)), parseSquare(move.substring(2, 4)), null);
+    }
+
+    private static ChessPosition parseSquare(String square) {
+        return new ChessPosition(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+}
@@ -1,6 +1,7 @@
 package client;
 
 import chess.ChessGame;
+import chess.InvalidMoveException;
 import http.NotificationHandler;
 import http.ServerFacade;
 import http.WebSocketFacade;
@@ -21,6 +22,8 @@ public class GameClient {
     private UUID authToken;
     private final GameIOManager ioManager;
     private ChessGame game;
+    // How many moves game has had, so a missed MOVE_APPLIED can be spotted
+    private int sequence;
     private final Integer gameId;
     private final ChessGame.TeamColor team;
     private final boolean isObserver;
@@ -60,13 +63,44 @@ public class GameClient {
         switch (message.getServerMessageType()) {
             case LOAD_GAME -> {
                 game = message.getGame();
+                sequence = (message.getSequence() != null) ? message.getSequence() : game.getPly();
                 ioManager.printGameMessage(message, team);
             }
+            case MOVE_APPLIED -> applyMove(message);
             case NOTIFICATION -> ioManager.printMessage(message);
             case ERROR -> ioManager.printError(message);
         }
     }
 
+    /**
+     * Plays a MOVE_APPLIED message's move on the local game, or asks for the whole game if a move was missed
+     */
+    private void applyMove(ServerMessage message) {
+        if (game == null || message.getSequence() != sequence + 1) {
+            resync();
+            return;
+        }
+        try {
+            game.makeMove(message.getMove());
+        } catch (InvalidMoveException e) {
+            resync();
+            return;
+        }
+        if (message.getStatus() == ChessGame.GameStatus.CHECKMATE || message.getStatus() == ChessGame.GameStatus.STALEMATE) {
+            game.disableGame();
+        }
+        sequence = message.getSequence();
+        ioManager.printGame(game, team, null);
+    }
+
+    private void resync() {
+        try {
+            ws.resync(gameId, authToken.toString());
+        } catch (ResponseException e) {
+            ioManager.printError(new ServerMessage(ServerMessage.ServerMessageType.ERROR, e.getMessage()));
+        }
+    }
+
     private void handleCommand(Integer code) throws ExitException {
         switch (code) {
             case 2 -> handleLeave();
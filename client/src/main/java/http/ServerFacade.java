@@ -5,9 +5,12 @@ import models.*;
 
 import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 
 public class ServerFacade {
     private final HttpClient client = HttpClient.newHttpClient();
@@ -42,9 +45,19 @@ public class ServerFacade {
         return makeRequest(req, GameData.class);
     }
 
+    /**
+     * Gets every game, following the server's pages until the last one
+     */
     public GamesListResponse listGames(String authToken) throws ResponseException {
-        var req = createRequest("GET", "/game", null, authToken);
-        return makeRequest(req, GamesListResponse.class);
+        var games = new ArrayList<GameData>();
+        String cursor = null;
+        do {
+            var path = (cursor == null) ? "/game" : "/game?cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8);
+            var page = makeRequest(createRequest("GET", path, null, authToken), GamesListResponse.class);
+            games.addAll(page.games());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return new GamesListResponse(games, null);
     }
 
     public void joinGame(JoinGameBody body, String authToken) throws ResponseException {
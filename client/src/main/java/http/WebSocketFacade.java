@@ -40,7 +40,15 @@ public class WebSocketFacade extends Endpoint {
     }
 
     public void connect(Integer gameId, String authToken) throws ResponseException {
-        var command = new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameId);
+        var command = new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameId).withMoveDeltas();
+        sendCommand(command);
+    }
+
+    /**
+     * Asks the server to send the whole game again
+     */
+    public void resync(Integer gameId, String authToken) throws ResponseException {
+        var command = new UserGameCommand(UserGameCommand.CommandType.RESYNC, authToken, gameId);
         sendCommand(command);
     }
 
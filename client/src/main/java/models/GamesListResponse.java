@@ -2,6 +2,10 @@ package models;
 
 import java.util.Collection;
 
+/**
+ * @param nextCursor passed back to get the next page of games, or null on the last page
+ */
 public record GamesListResponse(
-        Collection<GameData> games
+        Collection<GameData> games,
+        String nextCursor
 ) { }
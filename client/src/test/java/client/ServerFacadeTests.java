@@ -123,6 +123,18 @@ public class ServerFacadeTests {
         Assertions.assertTrue(gameList.games().contains(game1));
     }
 
+    @Test
+    public void testListGamesFollowsPages() {
+        var authData = createTestAccount();
+        // One more than the server's default page size
+        for (int i = 0; i <= 1000; i++) {
+            createTestGame(authData.authToken(), "game" + i);
+        }
+        var gameList = Assertions.assertDoesNotThrow(() -> serverFacade.listGames(authData.authToken().toString()));
+        Assertions.assertEquals(1001, gameList.games().size());
+        Assertions.assertNull(gameList.nextCursor());
+    }
+
     @Test
     public void testEmptyListGames() {
         var authData = createTestAccount();
@@ -0,0 +1,102 @@
+package dataaccess;
+
+import models.AuthData;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * AuthDAO decorator that remembers which user each recently used token belongs to, so checking a token doesn't need
+ * the wrapped DAO every time.
+ * <p>
+ * Entries expire after the time to live, and the least recently used are dropped past the size limit. Deleting a
+ * token or clearing the table takes effect here straight away. Only valid tokens are cached, so a token created
+ * elsewhere is seen on its first use, and one deleted elsewhere stops working within the time to live.
+ */
+public class CachingAuthDAO implements AuthDAO {
+    private final AuthDAO delegate;
+    private final long ttlNanos;
+
+    private record CachedToken(String username, long expiresAt) {}
+
+    // Access ordered, so the least recently used token is dropped first. Guarded by this.
+    private final LinkedHashMap<UUID, CachedToken> tokens;
+    // Goes up on every deletion, so a lookup that started before one doesn't cache what it read. Guarded by this.
+    private long invalidations = 0;
+
+    /**
+     * @param maxTokens the most tokens to remember at once
+     * @param ttl how long a token is remembered after it was read from the wrapped DAO
+     */
+    public CachingAuthDAO(AuthDAO delegate, int maxTokens, Duration ttl) {
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.tokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedToken> eldest) {
+                return size() > maxTokens;
+            }
+        };
+    }
+
+    @Override
+    public String getUsernameFromToken(UUID token) throws DataAccessException {
+        long seenInvalidations;
+        synchronized (this) {
+            var cached = tokens.get(token);
+            if (cached != null) {
+                if (cached.expiresAt() - System.nanoTime() > 0) {
+                    return cached.username();
+                }
+                tokens.remove(token);
+            }
+            seenInvalidations = invalidations;
+        }
+        String username = delegate.getUsernameFromToken(token);
+        synchronized (this) {
+            if (invalidations == seenInvalidations) {
+                tokens.put(token, new CachedToken(username, System.nanoTime() + ttlNanos));
+            }
+        }
+        return username;
+    }
+
+    @Override
+    public void createAuth(AuthData data) {
+        delegate.createAuth(data);
+    }
+
+    @Override
+    public void deleteAuth(UUID token) throws DataAccessException {
+        invalidate(token);
+        try {
+            delegate.deleteAuth(token);
+        } finally {
+            invalidate(token);
+        }
+    }
+
+    @Override
+    public void clearTable() {
+        invalidate(null);
+        try {
+            delegate.clearTable();
+        } finally {
+            invalidate(null);
+        }
+    }
+
+    /**
+     * Forgets one token, or every token if it's null
+     */
+    private synchronized void invalidate(UUID token) {
+        invalidations++;
+        if (token == null) {
+            tokens.clear();
+        } else {
+            tokens.remove(token);
+        }
+    }
+}
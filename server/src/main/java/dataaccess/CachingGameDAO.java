@@ -0,0 +1,251 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.GameCodec;
+import models.GameData;
+import models.GameListQuery;
+import models.GamesListResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * GameDAO decorator that keeps active games in memory and writes moves back to the wrapped DAO in the background.
+ * <p>
+ * Game metadata (players and names) is written through immediately, since the game list reads it from the wrapped
+ * DAO. Game states are held as GameCodec bytes, so every caller gets its own copy of a game to modify, and changed
+ * states are written in batches every flush interval. A game evicted for size or idleness stays queued until its
+ * latest state has been written, and close() writes everything still queued. Every write to the wrapped DAO happens
+ * on the one flusher thread, so two writes for the same game can never land out of order.
+ */
+public class CachingGameDAO implements GameDAO, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingGameDAO.class);
+    // Every cache not yet closed, so shutdown can flush them without having to create the DAOs first
+    private static final Set<CachingGameDAO> OPEN = ConcurrentHashMap.newKeySet();
+
+    private final GameDAO delegate;
+    private final int maxGames;
+    private final long idleNanos;
+    private final ScheduledExecutorService flusher;
+
+    // Access ordered, so the least recently used game comes first. Guarded by this.
+    private final LinkedHashMap<Integer, CachedGame> games = new LinkedHashMap<>(16, 0.75f, true);
+    // States that haven't been written to the wrapped DAO yet. Guarded by this.
+    private final Map<Integer, byte[]> pending = new HashMap<>();
+
+    private static class CachedGame {
+        GameData data;
+        byte[] state;
+        long lastAccess;
+    }
+
+    /**
+     * @param maxGames the most games to keep in memory at once
+     * @param idleTimeout how long a game can go unused before it is dropped from memory
+     * @param flushInterval how often changed games are written to the wrapped DAO
+     */
+    public CachingGameDAO(GameDAO delegate, int maxGames, Duration idleTimeout, Duration flushInterval) {
+        this.delegate = delegate;
+        this.maxGames = maxGames;
+        this.idleNanos = idleTimeout.toNanos();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "game-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushAndEvict, interval, interval, TimeUnit.MILLISECONDS);
+        OPEN.add(this);
+    }
+
+    /**
+     * Writes every changed game in every open cache. Does nothing if no cache was ever made.
+     */
+    public static void flushAll() {
+        OPEN.forEach(CachingGameDAO::flush);
+    }
+
+    @Override
+    public GamesListResponse getGames() {
+        return delegate.getGames();
+    }
+
+    /**
+     * Filters on whether a game is finished go by the wrapped DAO, so can be up to a flush interval behind
+     */
+    @Override
+    public List<GameData> listGames(GameListQuery query) {
+        return delegate.listGames(query);
+    }
+
+    @Override
+    public GameData getGame(Integer gameId) throws DataAccessException {
+        synchronized (this) {
+            var cached = games.get(gameId);
+            if (cached != null && cached.data != null) {
+                cached.lastAccess = System.nanoTime();
+                return cached.data;
+            }
+        }
+        var data = delegate.getGame(gameId);
+        synchronized (this) {
+            var cached = entry(gameId);
+            if (cached.data == null) {
+                cached.data = data; // Another thread may have updated the game while this one was reading it
+            }
+            return cached.data;
+        }
+    }
+
+    @Override
+    public GameData createGame(String gameName) {
+        var data = delegate.createGame(gameName);
+        synchronized (this) {
+            entry(data.gameID()).data = data;
+        }
+        return data;
+    }
+
+    @Override
+    public void updateGame(GameData game) {
+        delegate.updateGame(game);
+        synchronized (this) {
+            entry(game.gameID()).data = game;
+        }
+    }
+
+    @Override
+    public void clearTable() {
+        synchronized (this) {
+            games.clear();
+            pending.clear();
+        }
+        // Runs on the flusher so a batch that was already being written can't land after the table is cleared
+        runOnFlusher(delegate::clearTable);
+    }
+
+    @Override
+    public ChessGame getGameObject(Integer gameId) throws DataAccessException {
+        synchronized (this) {
+            var cached = games.get(gameId);
+            byte[] state = (cached != null) ? cached.state : pending.get(gameId);
+            if (state != null) {
+                entry(gameId).state = state;
+                return GameCodec.decode(state);
+            }
+        }
+        var state = GameCodec.encode(delegate.getGameObject(gameId));
+        synchronized (this) {
+            var cached = entry(gameId);
+            if (cached.state == null) {
+                cached.state = state;
+            }
+            return GameCodec.decode(cached.state);
+        }
+    }
+
+    @Override
+    public void updateGameObject(Integer gameId, ChessGame newGame) {
+        var state = GameCodec.encode(newGame);
+        synchronized (this) {
+            entry(gameId).state = state;
+            pending.put(gameId, state);
+        }
+    }
+
+    @Override
+    public void updateGameObjects(Map<Integer, ChessGame> newGames) {
+        newGames.forEach(this::updateGameObject);
+    }
+
+    /**
+     * Writes every changed game to the wrapped DAO, and waits until it's done
+     */
+    public void flush() {
+        runOnFlusher(this::writePending);
+    }
+
+    /**
+     * Stops the background writer after writing every changed game
+     */
+    @Override
+    public void close() {
+        OPEN.remove(this);
+        flush();
+        flusher.shutdown();
+    }
+
+    /**
+     * Gets a game's cache entry, creating it if needed, and drops the least recently used games past maxGames.
+     * Must be called holding the lock.
+     */
+    private CachedGame entry(Integer gameId) {
+        var cached = games.computeIfAbsent(gameId, id -> new CachedGame());
+        cached.lastAccess = System.nanoTime();
+        var iterator = games.entrySet().iterator();
+        while (games.size() > maxGames && iterator.hasNext()) {
+            if (iterator.next().getValue() != cached) {
+                iterator.remove(); // Any unwritten state is still in pending
+            }
+        }
+        return cached;
+    }
+
+    private void flushAndEvict() {
+        writePending();
+        long now = System.nanoTime();
+        synchronized (this) {
+            Iterator<CachedGame> iterator = games.values().iterator();
+            // Least recently used first, so stop at the first game that is still in use
+            while (iterator.hasNext() && now - iterator.next().lastAccess > idleNanos) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Writes every pending state in one batch. Only runs on the flusher thread.
+     */
+    private void writePending() {
+        Map<Integer, byte[]> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new HashMap<>(pending);
+        }
+        var batchGames = new HashMap<Integer, ChessGame>();
+        batch.forEach((id, state) -> batchGames.put(id, GameCodec.decode(state)));
+        try {
+            delegate.updateGameObjects(batchGames);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to write {} games, will retry: {}", batch.size(), e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            // A game that changed again while the batch was being written stays pending for the next one
+            batch.forEach(pending::remove);
+        }
+    }
+
+    private void runOnFlusher(Runnable task) {
+        try {
+            flusher.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (RejectedExecutionException e) {
+            task.run(); // Already closed, so nothing else is writing
+        }
+    }
+}
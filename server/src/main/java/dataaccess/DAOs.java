@@ -9,6 +9,8 @@ import dataaccess.sql.SqlUserDAO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+
 /**
  * Class that globally instantiates and serves DAOs
  */
@@ -20,6 +22,15 @@ public class DAOs {
     private static final UserDAO USER_DAO;
     private static final GameDAO GAME_DAO;
 
+    // Recently used auth tokens are remembered, so checking one doesn't always need the database
+    private static final int CACHED_TOKENS = 10000;
+    private static final Duration TOKEN_TTL = Duration.ofMinutes(1);
+
+    // Active games are kept in memory and their moves written to the database in the background
+    private static final int CACHED_GAMES = 1000;
+    private static final Duration GAME_IDLE_TIMEOUT = Duration.ofMinutes(30);
+    private static final Duration GAME_FLUSH_INTERVAL = Duration.ofMillis(250);
+
     static {
         if (useDB) {
             try {
@@ -30,9 +41,18 @@ public class DAOs {
                 useDB = false;
             }
         }
-        AUTH_DAO = useDB ? new SqlAuthDAO() : new MemoryAuthDAO();
+        AUTH_DAO = useDB ? new CachingAuthDAO(new SqlAuthDAO(), CACHED_TOKENS, TOKEN_TTL) : new MemoryAuthDAO();
         USER_DAO = useDB ? new SqlUserDAO() : new MemoryUserDAO();
-        GAME_DAO = useDB ? new SqlGameDAO() : new MemoryGameDAO();
+        if (useDB) {
+            var cachingGameDAO = new CachingGameDAO(new SqlGameDAO(), CACHED_GAMES, GAME_IDLE_TIMEOUT, GAME_FLUSH_INTERVAL);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                cachingGameDAO.close();
+                DatabaseManager.closePool();
+            }));
+            GAME_DAO = cachingGameDAO;
+        } else {
+            GAME_DAO = new MemoryGameDAO();
+        }
     }
 
 
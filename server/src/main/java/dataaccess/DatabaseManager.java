@@ -1,5 +1,13 @@
 package dataaccess;
 
+import chess.ChessGame;
+import chess.GameCodec;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import models.PoolMetrics;
+
 import java.sql.*;
 import java.util.Collection;
 import java.util.List;
@@ -10,6 +18,8 @@ public class DatabaseManager {
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    private static final HikariConfig POOL_CONFIG = new HikariConfig();
+    private static HikariDataSource pool;
 
     /*
      * Load the database information for the db.properties file.
@@ -32,6 +42,10 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Creates the tables if they don't exist, then brings them up to date by applying every migration the database
+     * hasn't had yet. Applied migrations are recorded in the schema_version table.
+     */
     static public void instantiateTables() throws DataAccessException {
         Collection<String> tableStatements = List.of("""
                     CREATE TABLE IF NOT EXISTS user (
@@ -52,7 +66,15 @@ public class DatabaseManager {
                         white_username varchar(255),
                         black_username varchar(255),
                         game_name varchar(255) NOT NULL,
-                        game text
+                        game text,
+                        game_state varbinary(64)
+                    );
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        version int PRIMARY KEY,
+                        description varchar(255) NOT NULL,
+                        applied_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP
                     );
                     """
                 );
@@ -65,13 +87,175 @@ public class DatabaseManager {
                 throw new DataAccessException(e.getMessage());
             }
         }
+        migrate();
+    }
+
+    private interface MigrationStep {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    /**
+     * One change to the schema. MySQL can't roll back a schema change, so each step checks whether it's already
+     * been made, which lets a migration that failed partway through be run again.
+     */
+    private record Migration(int version, String description, MigrationStep step) {}
+
+    // Only ever add to the end of this list; a migration that has been applied somewhere must not change
+    private static final List<Migration> MIGRATIONS = List.of(
+            // Tables created before games were stored in binary only have the JSON column
+            new Migration(1, "add game_state", connection ->
+                    addColumnIfMissing(connection, "game", "game_state", "varbinary(64)")),
+            new Migration(2, "index game players", connection -> {
+                addIndexIfMissing(connection, "game", "game_white_username", "white_username");
+                addIndexIfMissing(connection, "game", "game_black_username", "black_username");
+            }),
+            new Migration(3, "add game status and updated_at", connection -> {
+                if (addColumnIfMissing(connection, "game", "status",
+                        "enum('ACTIVE', 'FINISHED') NOT NULL DEFAULT 'ACTIVE'")) {
+                    // Byte 33 of the GameCodec format holds the turn, which is 2 once the game is over
+                    execute(connection, "UPDATE game SET status = 'FINISHED' WHERE ASCII(SUBSTRING(game_state, 34, 1)) & 3 = 2");
+                }
+                addColumnIfMissing(connection, "game", "updated_at",
+                        "timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP");
+                addIndexIfMissing(connection, "game", "game_status", "status, game_id");
+            }),
+            new Migration(4, "add auth created_at and index auth username", connection -> {
+                addColumnIfMissing(connection, "auth", "created_at", "timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP");
+                addIndexIfMissing(connection, "auth", "auth_username", "username");
+                addIndexIfMissing(connection, "auth", "auth_created_at", "created_at");
+            }),
+            // Version 3 could only work out the status of games already in game_state
+            new Migration(5, "convert JSON games to game_state", DatabaseManager::convertJsonGames)
+    );
+
+    private static final int CONVERT_BATCH_SIZE = 500;
+
+    /**
+     * Moves games saved before the binary format out of the JSON column, setting their status as it goes. Works
+     * through the table in batches, so a large one isn't read into memory at once. Rows that can't be parsed are
+     * left as they are.
+     */
+    private static void convertJsonGames(Connection connection) throws SQLException {
+        var gson = new Gson();
+        var select = "SELECT game_id, game FROM game WHERE game_id > ? AND game_state IS NULL AND game IS NOT NULL "
+                + "ORDER BY game_id LIMIT " + CONVERT_BATCH_SIZE;
+        var update = "UPDATE game SET game_state = ?, game = NULL, status = ? WHERE game_id = ?";
+        int lastId = 0;
+        while (true) {
+            int read = 0;
+            try (var selectStatement = connection.prepareStatement(select);
+                 var updateStatement = connection.prepareStatement(update)) {
+                selectStatement.setInt(1, lastId);
+                try (var rs = selectStatement.executeQuery()) {
+                    while (rs.next()) {
+                        read++;
+                        lastId = rs.getInt(1);
+                        ChessGame game;
+                        try {
+                            game = gson.fromJson(rs.getString(2), ChessGame.class);
+                        } catch (JsonParseException e) {
+                            game = null;
+                        }
+                        if (game == null) {
+                            System.out.println("Left game " + lastId + " as JSON: it couldn't be parsed");
+                            continue;
+                        }
+                        updateStatement.setBytes(1, GameCodec.encode(game));
+                        updateStatement.setString(2, game.isDisabled() ? "FINISHED" : "ACTIVE");
+                        updateStatement.setInt(3, lastId);
+                        updateStatement.addBatch();
+                    }
+                }
+                updateStatement.executeBatch();
+            }
+            if (read < CONVERT_BATCH_SIZE) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Applies, in order, each migration newer than the database's schema version. A lock keeps two servers
+     * starting at once from both running them.
+     */
+    private static void migrate() throws DataAccessException {
+        try (Connection connection = DatabaseManager.getConnection()) {
+            try (var lock = connection.prepareStatement("SELECT GET_LOCK('chess_schema', 30)");
+                 var rs = lock.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new DataAccessException("timed out waiting for another server to update the schema");
+                }
+            }
+            try {
+                int current = 0;
+                try (var statement = connection.prepareStatement("SELECT COALESCE(MAX(version), 0) FROM schema_version");
+                     var rs = statement.executeQuery()) {
+                    if (rs.next()) {
+                        current = rs.getInt(1);
+                    }
+                }
+                for (var migration : MIGRATIONS) {
+                    if (migration.version() <= current) {
+                        continue;
+                    }
+                    System.out.println("Migrating schema to version " + migration.version() + ": " + migration.description());
+                    migration.step().apply(connection);
+                    try (var statement = connection.prepareStatement(
+                            "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                        statement.setInt(1, migration.version());
+                        statement.setString(2, migration.description());
+                        statement.executeUpdate();
+                    }
+                }
+            } finally {
+                execute(connection, "DO RELEASE_LOCK('chess_schema')");
+            }
+        } catch (SQLException e) {
+            System.out.println("schema migration failed " + e.getMessage());
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    private static void execute(Connection connection, String statement) throws SQLException {
+        try (var preparedStatement = connection.prepareStatement(statement)) {
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * @return whether the column was added
+     */
+    private static boolean addColumnIfMissing(Connection connection, String table, String column, String definition) throws SQLException {
+        var query = "SELECT COUNT(*) FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? AND COLUMN_NAME = ?";
+        if (exists(connection, query, table, column)) {
+            return false;
+        }
+        execute(connection, "ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        return true;
+    }
+
+    private static void addIndexIfMissing(Connection connection, String table, String index, String columns) throws SQLException {
+        var query = "SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? AND INDEX_NAME = ?";
+        if (!exists(connection, query, table, index)) {
+            execute(connection, "CREATE INDEX " + index + " ON " + table + " (" + columns + ")");
+        }
+    }
+
+    private static boolean exists(Connection connection, String query, String table, String name) throws SQLException {
+        try (var statement = connection.prepareStatement(query)) {
+            statement.setString(1, databaseName);
+            statement.setString(2, table);
+            statement.setString(3, name);
+            try (var rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
-     * The easiest way to do that is with a try-with-resource block.
+     * Borrows a connection to the database from the connection pool. Connections to the database should
+     * be short-lived, and you must close the connection when you are done with it, which hands it back
+     * to the pool. The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
      * try (var conn = DatabaseManager.getConnection()) {
@@ -82,14 +266,43 @@ public class DatabaseManager {
     static public Connection getConnection() throws DataAccessException {
         try {
             //do not wrap the following line with a try-with-resources
-            var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-            conn.setCatalog(databaseName);
-            return conn;
-        } catch (SQLException ex) {
+            return getPool().getConnection();
+        } catch (SQLException | RuntimeException ex) {
             throw new DataAccessException("failed to get connection", ex);
         }
     }
 
+    /**
+     * The pool is opened on first use, since it connects straight to the database createDatabase makes
+     */
+    private static synchronized HikariDataSource getPool() {
+        if (pool == null) {
+            pool = new HikariDataSource(POOL_CONFIG);
+        }
+        return pool;
+    }
+
+    /**
+     * @return how the connection pool's connections are being used, or null if it hasn't been opened
+     */
+    static public synchronized PoolMetrics getPoolMetrics() {
+        if (pool == null || pool.getHikariPoolMXBean() == null) {
+            return null;
+        }
+        var bean = pool.getHikariPoolMXBean();
+        return new PoolMetrics(bean.getActiveConnections(), bean.getIdleConnections(), bean.getTotalConnections(),
+                bean.getThreadsAwaitingConnection(), pool.getMaximumPoolSize());
+    }
+
+    /**
+     * Closes every pooled connection. Only for shutdown, as getConnection fails afterwards.
+     */
+    static public synchronized void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
     private static void loadPropertiesFromResources() {
         try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
             if (propStream == null) {
@@ -111,5 +324,38 @@ public class DatabaseManager {
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
         connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+        loadPoolProperties(props);
+    }
+
+    /**
+     * Reads the optional connection pool settings:
+     * <ul>
+     * <li>db.pool.maxSize: most open connections (default 10)</li>
+     * <li>db.pool.minIdle: idle connections kept open (default 2)</li>
+     * <li>db.pool.idleTimeoutMs: how long a connection past minIdle can sit idle before it's closed (default 10 minutes)</li>
+     * <li>db.pool.connectionTimeoutMs: how long to wait for a free connection (default 5 seconds)</li>
+     * <li>db.pool.validationQuery: query checking a connection still works, instead of the driver's own check</li>
+     * <li>db.pool.leakDetectionMs: logs a connection held longer than this, with where it was borrowed (default 30 seconds, 0 for off)</li>
+     * </ul>
+     */
+    private static void loadPoolProperties(Properties props) {
+        POOL_CONFIG.setPoolName("chess-db");
+        POOL_CONFIG.setJdbcUrl(connectionUrl + "/" + databaseName);
+        POOL_CONFIG.setUsername(dbUsername);
+        POOL_CONFIG.setPassword(dbPassword);
+        POOL_CONFIG.setMaximumPoolSize(Integer.parseInt(props.getProperty("db.pool.maxSize", "10")));
+        POOL_CONFIG.setMinimumIdle(Integer.parseInt(props.getProperty("db.pool.minIdle", "2")));
+        POOL_CONFIG.setIdleTimeout(Long.parseLong(props.getProperty("db.pool.idleTimeoutMs", "600000")));
+        POOL_CONFIG.setConnectionTimeout(Long.parseLong(props.getProperty("db.pool.connectionTimeoutMs", "5000")));
+        POOL_CONFIG.setLeakDetectionThreshold(Long.parseLong(props.getProperty("db.pool.leakDetectionMs", "30000")));
+        var validationQuery = props.getProperty("db.pool.validationQuery");
+        if (validationQuery != null && !validationQuery.isBlank()) {
+            POOL_CONFIG.setConnectionTestQuery(validationQuery);
+        }
+        // Also publishes the pool's metrics over JMX
+        POOL_CONFIG.setRegisterMbeans(true);
+        // Lets the pool keep prepared statements for the DAOs' fixed set of queries
+        POOL_CONFIG.addDataSourceProperty("cachePrepStmts", "true");
+        POOL_CONFIG.addDataSourceProperty("useServerPrepStmts", "true");
     }
 }
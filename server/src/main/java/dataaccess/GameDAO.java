@@ -2,14 +2,30 @@ package dataaccess;
 
 import chess.ChessGame;
 import models.GameData;
+import models.GameListQuery;
 import models.GamesListResponse;
 
+import java.util.List;
+import java.util.Map;
+
 public interface GameDAO {
     GamesListResponse getGames();
+
+    /**
+     * Gets the games that match the query, in ID order
+     */
+    List<GameData> listGames(GameListQuery query);
     GameData getGame(Integer gameId) throws DataAccessException;
     GameData createGame(String gameName);
     void updateGame(GameData game);
     void clearTable();
     ChessGame getGameObject(Integer gameId) throws DataAccessException;
     void updateGameObject(Integer gameId, ChessGame newGame);
+
+    /**
+     * Saves several games at once. Implementations that can write them in a single round trip should override this.
+     */
+    default void updateGameObjects(Map<Integer, ChessGame> games) {
+        games.forEach(this::updateGameObject);
+    }
 }
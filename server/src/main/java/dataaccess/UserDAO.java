@@ -18,5 +18,9 @@ public interface UserDAO {
      */
     UserData getUser(String username) throws DataAccessException;
     void createUser(UserData data);
+    /**
+     * Replaces a user's password hash, such as when it is rehashed with a new cost
+     */
+    void updatePassword(String username, String passwordHash);
     void clearTable();
 }
@@ -4,9 +4,13 @@ import chess.ChessGame;
 import dataaccess.DataAccessException;
 import dataaccess.GameDAO;
 import models.GameData;
+import models.GameListQuery;
 import models.GamesListResponse;
 
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
 
 public class MemoryGameDAO implements GameDAO {
     private int nextId = 1;
@@ -19,6 +23,22 @@ public class MemoryGameDAO implements GameDAO {
         return new GamesListResponse(gameTable.values());
     }
 
+    @Override
+    public List<GameData> listGames(GameListQuery query) {
+        var games = gameTable.values().stream()
+                .filter(game -> query.after() == null || game.gameID() > query.after())
+                .filter(game -> !query.openSeats() || game.whiteUsername() == null || game.blackUsername() == null)
+                .filter(game -> query.player() == null || Objects.equals(game.whiteUsername(), query.player())
+                        || Objects.equals(game.blackUsername(), query.player()))
+                .filter(game -> query.finished() == null
+                        || gameObjectTable.get(game.gameID()).isDisabled() == query.finished())
+                .sorted(Comparator.comparing(GameData::gameID));
+        if (query.limit() != null) {
+            games = games.limit(query.limit());
+        }
+        return games.toList();
+    }
+
     @Override
     public GameData getGame(Integer gameId) throws DataAccessException {
         GameData game = gameTable.get(gameId);
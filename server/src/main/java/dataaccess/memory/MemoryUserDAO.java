@@ -22,6 +22,11 @@ public class MemoryUserDAO implements UserDAO {
         userTable.put(data.username(), data);
     }
 
+    @Override
+    public void updatePassword(String username, String passwordHash) {
+        userTable.computeIfPresent(username, (name, user) -> new UserData(name, passwordHash, user.email()));
+    }
+
     @Override
     public void clearTable() {
         userTable.clear();
@@ -1,17 +1,31 @@
 package dataaccess.sql;
 
 import chess.ChessGame;
+import chess.GameCodec;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import dataaccess.DataAccessException;
 import dataaccess.GameDAO;
 import models.GameData;
+import models.GameListQuery;
 import models.GamesListResponse;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 public class SqlGameDAO extends SqlHelpers implements GameDAO {
+    // A game's row holds it in GameCodec binary (game_state), or as JSON (game) if it was saved before that existed
+    private record StoredGame(byte[] state, String json) {}
+
+    private StoredGame rsToStoredGame(ResultSet rs) {
+        try {
+            return new StoredGame(rs.getBytes(1), rs.getString(2));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
     private GameData rsToGameData(ResultSet rs) {
         try {
@@ -36,6 +50,35 @@ public class SqlGameDAO extends SqlHelpers implements GameDAO {
         }
     }
 
+    @Override
+    public List<GameData> listGames(GameListQuery query) {
+        var sql = new StringBuilder("SELECT game_id, white_username, black_username, game_name FROM game WHERE game_id > ?");
+        List<Object> params = new ArrayList<>();
+        params.add(query.after() == null ? 0 : query.after());
+        if (query.openSeats()) {
+            sql.append(" AND (white_username IS NULL OR black_username IS NULL)");
+        }
+        if (query.player() != null) {
+            sql.append(" AND (white_username = ? OR black_username = ?)");
+            params.add(query.player());
+            params.add(query.player());
+        }
+        if (query.finished() != null) {
+            sql.append(" AND status = ?");
+            params.add(status(query.finished()));
+        }
+        sql.append(" ORDER BY game_id");
+        if (query.limit() != null) {
+            sql.append(" LIMIT ?");
+            params.add(query.limit());
+        }
+        try {
+            return executeListQuery(sql.toString(), this::rsToGameData, params.toArray());
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public GameData getGame(Integer gameId) throws DataAccessException {
         String query = "SELECT game_id, white_username, black_username, game_name FROM game WHERE game_id = ?";
@@ -52,11 +95,9 @@ public class SqlGameDAO extends SqlHelpers implements GameDAO {
 
     @Override
     public GameData createGame(String gameName) {
-        String statement = "INSERT INTO game (game_name, game) VALUES (?, ?)";
+        String statement = "INSERT INTO game (game_name, game_state) VALUES (?, ?)";
         try {
-            var gson = new Gson();
-            var game = new ChessGame();
-            var id = executeUpdate(statement, gameName, gson.toJson(game));
+            var id = executeUpdate(statement, gameName, GameCodec.encode(new ChessGame()));
             return new GameData(id, null, null, gameName);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to create game: " + e);
@@ -84,12 +125,20 @@ public class SqlGameDAO extends SqlHelpers implements GameDAO {
 
     @Override
     public ChessGame getGameObject(Integer gameId) throws DataAccessException {
-        String query = "SELECT game FROM game WHERE game_id = ?";
+        String query = "SELECT game_state, game FROM game WHERE game_id = ?";
         try {
-            var gson = new Gson();
-            var response = executeQuery(query, this::rsToString, gameId);
+            var response = executeQuery(query, this::rsToStoredGame, gameId);
             for (var r : response) {
-                return gson.fromJson(r, ChessGame.class);
+                if (r.state() != null) {
+                    return GameCodec.decode(r.state());
+                }
+                if (r.json() == null) {
+                    break;
+                }
+                // Move the game over to the binary column so it is only ever parsed as JSON once
+                var game = new Gson().fromJson(r.json(), ChessGame.class);
+                updateGameObject(gameId, game);
+                return game;
             }
             throw new DataAccessException("No game found");
         } catch (SQLException e) {
@@ -99,13 +148,28 @@ public class SqlGameDAO extends SqlHelpers implements GameDAO {
 
     @Override
     public void updateGameObject(Integer gameId, ChessGame newObject) {
-        String statement = "UPDATE game SET game = ? WHERE game_id = ?";
+        String statement = "UPDATE game SET game_state = ?, game = NULL, status = ? WHERE game_id = ?";
         try {
-            var gson = new GsonBuilder().serializeNulls().create();
-            var newJson = gson.toJson(newObject);
-            executeUpdate(statement, newJson, gameId);
+            executeUpdate(statement, GameCodec.encode(newObject), status(newObject.isDisabled()), gameId);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update game: " + e);
         }
     }
+
+    @Override
+    public void updateGameObjects(Map<Integer, ChessGame> games) {
+        String statement = "UPDATE game SET game_state = ?, game = NULL, status = ? WHERE game_id = ?";
+        List<Object[]> params = new ArrayList<>();
+        games.forEach((gameId, game) ->
+                params.add(new Object[]{GameCodec.encode(game), status(game.isDisabled()), gameId}));
+        try {
+            executeBatch(statement, params);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update games: " + e);
+        }
+    }
+
+    private static String status(boolean finished) {
+        return finished ? "FINISHED" : "ACTIVE";
+    }
 }
@@ -7,8 +7,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.function.Function;
 
 import static java.sql.Types.NULL;
@@ -53,12 +55,56 @@ public class SqlHelpers {
         }
     }
 
+    /**
+     * Like executeQuery, but keeps the rows in the order the query returned them
+     */
+    protected <T> List<T> executeListQuery(String query, Function<ResultSet, T> mapper, Object... params) throws SQLException {
+        try (
+                var conn = DatabaseManager.getConnection();
+                var preparedStatement = conn.prepareStatement(query)
+        ) {
+            setParams(preparedStatement, params);
+            try (var rs = preparedStatement.executeQuery()) {
+                var result = new ArrayList<T>();
+                while (rs.next()) {
+                    result.add(mapper.apply(rs));
+                }
+                return result;
+            }
+        } catch (DataAccessException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    /**
+     * Runs the statement once per parameter list, sending them all as one batch in a single transaction
+     */
+    protected void executeBatch(String statement, List<Object[]> paramsList) throws SQLException {
+        try (var conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (var preparedStatement = conn.prepareStatement(statement)) {
+                for (Object[] params : paramsList) {
+                    setParams(preparedStatement, params);
+                    preparedStatement.addBatch();
+                }
+                preparedStatement.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (DataAccessException e) {
+            throw new SQLException(e);
+        }
+    }
+
     private void setParams(PreparedStatement statement, Object... params) throws SQLException {
         for (int i = 0; i < params.length; i++) {
             Object param = params[i];
             switch (param) {
                 case String p -> statement.setString(i + 1, p);
                 case Integer p -> statement.setInt(i + 1, p);
+                case byte[] p -> statement.setBytes(i + 1, p);
                 case null -> statement.setNull(i + 1, NULL);
                 default -> {}
             }
@@ -47,6 +47,15 @@ public class SqlUserDAO extends SqlHelpers implements UserDAO {
         }
     }
 
+    @Override
+    public void updatePassword(String username, String passwordHash) {
+        String statement = "UPDATE user SET password = ? WHERE username = ?";
+        try { executeUpdate(statement, passwordHash, username); }
+        catch (SQLException e) {
+            throw new RuntimeException("Failed to update password: " + e);
+        }
+    }
+
     @Override
     public void clearTable() {
         String statement = "TRUNCATE user";
@@ -1,15 +1,93 @@
 package handler;
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.ContentType;
 import io.javalin.http.Context;
 import io.javalin.http.Handler;
+import models.GameData;
+import models.GameListQuery;
 import org.jetbrains.annotations.NotNull;
 
-import static service.GameService.getGames;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 
+import static service.GameService.listGames;
+
+/**
+ * Lists games a page at a time, in ID order. A page holds up to limit games, and if there are more the response has
+ * a nextCursor to pass back for the next page. Optional parameters:
+ * <ul>
+ * <li>limit: the most games to list (1-1000, default 1000)</li>
+ * <li>cursor: the nextCursor from the previous page</li>
+ * <li>open=true: only games with an empty seat</li>
+ * <li>status=active or status=finished</li>
+ * <li>player: only games this user is playing in</li>
+ * </ul>
+ */
 public class GetGamesHandler implements Handler {
+    private static final int MAX_LIMIT = 1000;
+    private static final Gson GSON = new Gson();
+
     @Override
-    public void handle(@NotNull Context context) {
-        context.json(new Gson().toJson(getGames()));
+    public void handle(@NotNull Context context) throws BadRequestResponse, IOException {
+        var query = parseQuery(context);
+        // Asks for one extra game, which is only there if another page follows. The page is read in full before
+        // anything is written, so the database connection isn't held while a slow client reads, and a failed query
+        // can still be answered with an error.
+        var games = listGames(query.withLimit(query.limit() + 1));
+        boolean more = games.size() > query.limit();
+        if (more) {
+            games = games.subList(0, query.limit());
+        }
+
+        context.contentType(ContentType.APPLICATION_JSON);
+        try (var writer = new JsonWriter(new OutputStreamWriter(context.outputStream(), StandardCharsets.UTF_8))) {
+            writer.beginObject().name("games").beginArray();
+            for (var game : games) {
+                GSON.toJson(game, GameData.class, writer);
+            }
+            writer.endArray();
+            if (more) {
+                writer.name("nextCursor").value(Integer.toString(games.getLast().gameID()));
+            }
+            writer.endObject();
+        }
+    }
+
+    private static GameListQuery parseQuery(Context context) throws BadRequestResponse {
+        Integer limit = parseInt(context.queryParam("limit"), "limit");
+        if (limit == null) {
+            limit = MAX_LIMIT;
+        } else if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestResponse("limit must be between 1 and " + MAX_LIMIT);
+        }
+        Integer after = parseInt(context.queryParam("cursor"), "cursor");
+        boolean openSeats = "true".equals(context.queryParam("open"));
+        String status = context.queryParam("status");
+        Boolean finished;
+        if (status == null) {
+            finished = null;
+        } else if (status.equals("active")) {
+            finished = false;
+        } else if (status.equals("finished")) {
+            finished = true;
+        } else {
+            throw new BadRequestResponse("status must be active or finished");
+        }
+        return new GameListQuery(after, limit, openSeats, finished, context.queryParam("player"));
+    }
+
+    private static Integer parseInt(String value, String name) throws BadRequestResponse {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestResponse(name + " must be a number");
+        }
     }
 }
@@ -0,0 +1,19 @@
+package handler;
+
+import com.google.gson.Gson;
+import dataaccess.DatabaseManager;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.NotFoundResponse;
+import org.jetbrains.annotations.NotNull;
+
+public class PoolMetricsHandler implements Handler {
+    @Override
+    public void handle(@NotNull Context context) {
+        var metrics = DatabaseManager.getPoolMetrics();
+        if (metrics == null) {
+            throw new NotFoundResponse("database connection pool is not open");
+        }
+        context.json(new Gson().toJson(metrics));
+    }
+}
@@ -10,6 +10,7 @@ public class WebSocketHandler implements WsConnectHandler, WsCloseHandler, WsMes
     @Override
     public void handleClose(@NotNull WsCloseContext wsCloseContext) {
         System.out.println("Websocket disconnected");
+        WebSocketService.removeSession(wsCloseContext.session);
     }
 
     @Override
@@ -0,0 +1,24 @@
+package models;
+
+/**
+ * Which games to list, for GET /game
+ * @param after only games with a larger ID than this, which is the cursor a previous page ended at, or null
+ * @param limit the most games to list, or null for all of them
+ * @param openSeats only games with a seat nobody has taken
+ * @param finished true for only finished games, false for only games still being played, or null for both
+ * @param player only games this user is playing in, or null
+ */
+public record GameListQuery(
+        Integer after,
+        Integer limit,
+        boolean openSeats,
+        Boolean finished,
+        String player
+) {
+    /**
+     * @return the same query, but listing up to the given number of games
+     */
+    public GameListQuery withLimit(Integer newLimit) {
+        return new GameListQuery(after, newLimit, openSeats, finished, player);
+    }
+}
@@ -0,0 +1,10 @@
+package models;
+
+public record PoolMetrics(
+        int activeConnections,
+        int idleConnections,
+        int totalConnections,
+        int threadsAwaitingConnection,
+        int maxPoolSize
+) {
+}
@@ -1,18 +1,37 @@
 package server;
 
+import dataaccess.CachingGameDAO;
 import handler.*;
 import io.javalin.*;
 import io.javalin.http.BadRequestResponse;
 import io.javalin.http.ForbiddenResponse;
 import io.javalin.http.NotFoundResponse;
+import io.javalin.http.ServiceUnavailableResponse;
 import io.javalin.http.UnauthorizedResponse;
+import service.WebSocketService;
+
+import java.util.concurrent.Executors;
 
 public class Server {
 
     private final Javalin javalin;
 
     public Server() {
-        javalin = Javalin.create(config -> config.staticFiles.add("web"));
+        this(false);
+    }
+
+    /**
+     * @param useVirtualThreads run HTTP requests, websocket messages and game commands on virtual threads, so handlers
+     *                          blocked on the database or password hashing don't use up a fixed pool of threads
+     */
+    public Server(boolean useVirtualThreads) {
+        javalin = Javalin.create(config -> {
+            config.staticFiles.add("web");
+            config.useVirtualThreads = useVirtualThreads;
+        });
+        if (useVirtualThreads) {
+            WebSocketService.setCommandExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        }
 
         // Register your endpoints and exception handlers here.
         createHandlers(javalin);
@@ -26,6 +45,8 @@ public class Server {
 
     public void stop() {
         javalin.stop();
+        // Only flushes a game cache that already exists, so stopping never has to connect to the database
+        CachingGameDAO.flushAll();
     }
 
     private void createHandlers(Javalin javalin) {
@@ -38,6 +59,8 @@ public class Server {
 
         // Data endpoints
         javalin.delete("/db", new ClearDBHandler());
+        javalin.before("/metrics/db", new VerifyAuthMiddleware());
+        javalin.get("/metrics/db", new PoolMetricsHandler());
 
         // Game endpoints
         javalin.before("/game", new VerifyAuthMiddleware());
@@ -75,6 +98,11 @@ public class Server {
             ctx.status(404);
             ctx.json("{\"message\":\"Error: not found\"}");
         });
+        javalin.exception(ServiceUnavailableResponse.class, (e, ctx) -> {
+            System.out.println("***Service Unavailable Exception: " + e.getMessage());
+            ctx.status(503);
+            ctx.json("{\"message\":\"Error: server busy, try again later\"}");
+        });
         javalin.exception(Exception.class, (e, ctx) -> {
             System.out.println("***Exception: " + e.getMessage());
             ctx.status(500);
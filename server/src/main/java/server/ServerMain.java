@@ -2,9 +2,13 @@ package server;
 
 import chess.*;
 
+import java.util.Arrays;
+
 public class ServerMain {
     public static void main(String[] args) {
-        var server = new Server();
+        // Pass --virtual-threads (or set -Dchess.virtualThreads=true) to handle requests on virtual threads
+        boolean useVirtualThreads = Arrays.asList(args).contains("--virtual-threads") || Boolean.getBoolean("chess.virtualThreads");
+        var server = new Server(useVirtualThreads);
         server.run(8080);
 
         System.out.println("♕ 240 Chess Server");
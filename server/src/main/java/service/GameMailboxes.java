@@ -0,0 +1,104 @@
+package service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs tasks for each game one at a time, in the order they were submitted, while tasks for different games run in
+ * parallel on the executor. No game holds a thread while it has nothing queued.
+ */
+public class GameMailboxes {
+    // Tasks a game runs before letting other games have the thread
+    private static final int BATCH_SIZE = 16;
+
+    private final Executor executor;
+    private final ConcurrentHashMap<Integer, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    public GameMailboxes(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Queues a task to run after every task already submitted for the same game
+     */
+    public void submit(Integer gameId, Runnable task) {
+        while (!mailboxes.computeIfAbsent(gameId, Mailbox::new).submit(task)) {
+            // The mailbox emptied and was removed after it was looked up, so the task goes in a new one
+        }
+    }
+
+    /**
+     * @return how many games have a mailbox, which is only those with tasks queued or running
+     */
+    int size() {
+        return mailboxes.size();
+    }
+
+    private class Mailbox implements Runnable {
+        private final Integer gameId;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        // True while a drain is queued or running on the executor, and for good once the mailbox is removed
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Guarded by this
+        private boolean removed;
+
+        Mailbox(Integer gameId) {
+            this.gameId = gameId;
+        }
+
+        /**
+         * @return false if the mailbox has been removed, so the task wasn't queued
+         */
+        synchronized boolean submit(Runnable task) {
+            if (removed) {
+                return false;
+            }
+            tasks.add(task);
+            schedule();
+            return true;
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Runnable task;
+                for (int i = 0; i < BATCH_SIZE && (task = tasks.poll()) != null; i++) {
+                    try {
+                        task.run();
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            } finally {
+                // Also runs if a task threw an Error, so the game's later tasks still run
+                scheduled.set(false);
+                // Covers tasks left over from a full batch, and any added after the last poll but before scheduled was cleared
+                if (!tasks.isEmpty()) {
+                    schedule();
+                } else {
+                    removeIfEmpty();
+                }
+            }
+        }
+
+        /**
+         * Removes the mailbox if nothing was submitted since the queue emptied. Taking scheduled stops any other
+         * drain from starting, and submit can't add a task while this holds the lock.
+         */
+        private synchronized void removeIfEmpty() {
+            if (tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+                removed = true;
+                mailboxes.remove(gameId, this);
+            }
+        }
+    }
+}
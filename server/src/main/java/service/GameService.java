@@ -9,17 +9,18 @@ import io.javalin.http.BadRequestResponse;
 import io.javalin.http.ForbiddenResponse;
 import io.javalin.http.UnauthorizedResponse;
 import models.GameData;
-import models.GamesListResponse;
+import models.GameListQuery;
 import models.JoinGameBody;
 
+import java.util.List;
 import java.util.UUID;
 
 public class GameService {
     static GameDAO gameDAO = DAOs.getGameDAO();
     static AuthDAO authDAO = DAOs.getAuthDAO();
 
-    public static GamesListResponse getGames() {
-        return gameDAO.getGames();
+    public static List<GameData> listGames(GameListQuery query) {
+        return gameDAO.listGames(query);
     }
 
     public static GameData createGame(String gameName) {
@@ -2,11 +2,11 @@ package service;
 
 import dataaccess.*;
 import io.javalin.http.ForbiddenResponse;
+import io.javalin.http.ServiceUnavailableResponse;
 import io.javalin.http.UnauthorizedResponse;
 import models.AuthData;
 import models.LoginUserData;
 import models.UserData;
-import org.mindrot.jbcrypt.BCrypt;
 
 import java.util.UUID;
 
@@ -14,7 +14,7 @@ public class LoginService {
     static UserDAO userDAO = DAOs.getUserDAO();
     static AuthDAO authDAO = DAOs.getAuthDAO();
 
-    public static AuthData register(UserData data) throws ForbiddenResponse {
+    public static AuthData register(UserData data) throws ForbiddenResponse, ServiceUnavailableResponse {
         // Check if user exists
         try {
             userDAO.getUser(data.username());
@@ -22,7 +22,7 @@ public class LoginService {
         } catch (DataAccessException e) {
             //Ignore data access exceptions. This is the correct path
         }
-        var hashedData = new UserData(data.username(), BCrypt.hashpw(data.password(), BCrypt.gensalt()), data.email());
+        var hashedData = new UserData(data.username(), PasswordHasher.hash(data.password()), data.email());
         // Create new user
         userDAO.createUser(hashedData);
         // Login the user
@@ -31,15 +31,15 @@ public class LoginService {
         return authData;
     }
 
-    public static AuthData login(LoginUserData data) throws UnauthorizedResponse {
+    public static AuthData login(LoginUserData data) throws UnauthorizedResponse, ServiceUnavailableResponse {
         try {
             UserData userData = userDAO.getUser(data.username());
-            try {
-                if (!BCrypt.checkpw(data.password(), userData.password())) {
-                    throw new UnauthorizedResponse("incorrect password");
-                }
-            } catch (Exception e) {
-                throw new UnauthorizedResponse("password failed authentication");
+            if (!PasswordHasher.check(data.password(), userData.password())) {
+                throw new UnauthorizedResponse("incorrect password");
+            }
+            // The cost factor has changed since this password was hashed, so bring it up to date
+            if (PasswordHasher.needsRehash(userData.password())) {
+                PasswordHasher.rehashLater(data.password(), hash -> userDAO.updatePassword(data.username(), hash));
             }
 
             AuthData authData = new AuthData(data.username(), UUID.randomUUID());
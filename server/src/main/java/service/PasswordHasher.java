@@ -0,0 +1,89 @@
+package service;
+
+import io.javalin.http.ServiceUnavailableResponse;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Runs BCrypt on its own small thread pool, so a burst of logins can only use so much CPU and can't tie up every
+ * request thread. Once the pool's queue is full, new hashing requests fail straight away with a 503.
+ * <p>
+ * Set with system properties: chess.bcrypt.cost (work factor, default 10), chess.bcrypt.threads (default the number
+ * of cores) and chess.bcrypt.queueLimit (requests waiting for a thread, default 64).
+ */
+public class PasswordHasher {
+    private static final int COST = Integer.getInteger("chess.bcrypt.cost", 10);
+    private static final int THREADS = Integer.getInteger("chess.bcrypt.threads", Runtime.getRuntime().availableProcessors());
+    private static final int QUEUE_LIMIT = Integer.getInteger("chess.bcrypt.queueLimit", 64);
+
+    private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(
+            THREADS, THREADS, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_LIMIT), r -> {
+                var thread = new Thread(r, "password-hasher");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * @throws ServiceUnavailableResponse if too many passwords are already waiting to be hashed
+     */
+    public static String hash(String password) throws ServiceUnavailableResponse {
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(COST)));
+    }
+
+    /**
+     * @return whether the password matches the hash. A malformed hash never matches.
+     * @throws ServiceUnavailableResponse if too many passwords are already waiting to be hashed
+     */
+    public static boolean check(String password, String hash) throws ServiceUnavailableResponse {
+        return run(() -> {
+            try {
+                return BCrypt.checkpw(password, hash);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * @return whether the hash was made with a different cost than the one configured now
+     */
+    public static boolean needsRehash(String hash) {
+        // BCrypt hashes look like $2a$10$..., with the cost as the two digits after the version
+        try {
+            return Integer.parseInt(hash.substring(4, 6)) != COST;
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Hashes the password again with the current cost in the background, then hands the new hash to onHashed.
+     * Skipped if the pool is busy, since the next login will try again.
+     */
+    public static void rehashLater(String password, Consumer<String> onHashed) {
+        try {
+            EXECUTOR.execute(() -> onHashed.accept(BCrypt.hashpw(password, BCrypt.gensalt(COST))));
+        } catch (RejectedExecutionException e) {
+            System.out.println("Skipped rehashing a password: hasher is busy");
+        }
+    }
+
+    private static <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = EXECUTOR.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableResponse("too many logins in progress");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableResponse("interrupted while hashing");
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
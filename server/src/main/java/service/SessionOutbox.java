@@ -0,0 +1,201 @@
+package service;
+
+import com.google.gson.Gson;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import websocket.messages.ServerMessage;
+import websocket.messages.ServerMessage.ServerMessageType;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends a session's messages one at a time with async writes, so a broadcast never waits on a slow connection.
+ * Messages waiting behind the one being written are held in a bounded queue, and what happens once it's full is
+ * set by the session's SlowConsumerPolicy.
+ * <p>
+ * The queue size and policy default to 64 and COALESCE, and can be set with the chess.ws.queueLimit and
+ * chess.ws.slowConsumerPolicy system properties.
+ */
+public class SessionOutbox implements WriteCallback {
+    public enum SlowConsumerPolicy {
+        /** Drops new messages until the queue has room again */
+        DROP,
+        /**
+         * Drops game updates that a newer LOAD_GAME replaces, making room for a new LOAD_GAME if needed, and drops
+         * other new messages
+         */
+        COALESCE,
+        /** Closes the session */
+        DISCONNECT
+    }
+
+    private static final int QUEUE_LIMIT = Integer.getInteger("chess.ws.queueLimit", 64);
+    private static final SlowConsumerPolicy POLICY =
+            SlowConsumerPolicy.valueOf(System.getProperty("chess.ws.slowConsumerPolicy", "COALESCE"));
+    private static final ConcurrentHashMap<Session, SessionOutbox> OUTBOXES = new ConcurrentHashMap<>();
+
+    private static final Gson GSON = new Gson();
+
+    /**
+     * A ServerMessage serialized once, so one broadcast can hand the same text to every session
+     */
+    public record Encoded(ServerMessageType type, String text) {
+        public static Encoded of(ServerMessage message) {
+            return new Encoded(message.getServerMessageType(), GSON.toJson(message));
+        }
+    }
+
+    private final Session session;
+    private final SlowConsumerPolicy policy;
+    private final int queueLimit;
+    // Guarded by this
+    private final ArrayDeque<Encoded> queue = new ArrayDeque<>();
+    private boolean writing;
+
+    SessionOutbox(Session session, SlowConsumerPolicy policy, int queueLimit) {
+        this.session = session;
+        this.policy = policy;
+        this.queueLimit = queueLimit;
+    }
+
+    /**
+     * Gets the session's outbox. A closed session gets one that isn't kept, and that drops everything sent to it.
+     */
+    public static SessionOutbox of(Session session) {
+        var outbox = OUTBOXES.get(session);
+        if (outbox != null) {
+            return outbox;
+        }
+        if (!session.isOpen()) {
+            return new SessionOutbox(session, POLICY, QUEUE_LIMIT);
+        }
+        outbox = OUTBOXES.computeIfAbsent(session, s -> new SessionOutbox(s, POLICY, QUEUE_LIMIT));
+        // The session is closed before remove is called, so if it closed since the check above, either remove
+        // already ran and this drops the outbox it would have, or remove is still to come
+        if (!session.isOpen()) {
+            OUTBOXES.remove(session, outbox);
+        }
+        return outbox;
+    }
+
+    /**
+     * @return whether the session has an outbox kept for it
+     */
+    static boolean isKept(Session session) {
+        return OUTBOXES.containsKey(session);
+    }
+
+    /**
+     * Drops the session's outbox and anything still queued in it
+     */
+    public static void remove(Session session) {
+        OUTBOXES.remove(session);
+    }
+
+    /**
+     * Queues a message to be sent after every message already queued. Never blocks.
+     * @return false if the message was dropped, because the session is closed or the queue is full
+     */
+    public boolean send(Encoded message) {
+        synchronized (this) {
+            if (!session.isOpen()) {
+                return false;
+            }
+            if (writing) {
+                return enqueue(message);
+            }
+            writing = true;
+        }
+        write(message);
+        return true;
+    }
+
+    /**
+     * @return how many messages are waiting behind the one being written
+     */
+    public synchronized int queued() {
+        return queue.size();
+    }
+
+    @Override
+    public void writeSuccess() {
+        writeNext();
+    }
+
+    @Override
+    public void writeFailed(Throwable cause) {
+        System.out.println("Failed to send message: " + cause.getMessage());
+        writeNext();
+    }
+
+    private void writeNext() {
+        Encoded next;
+        synchronized (this) {
+            next = session.isOpen() ? queue.poll() : null;
+            if (next == null) {
+                queue.clear();
+                writing = false;
+                return;
+            }
+        }
+        write(next);
+    }
+
+    private void write(Encoded message) {
+        // Outside the lock, as the callback can run on this thread before sendString returns
+        session.getRemote().sendString(message.text(), this);
+    }
+
+    /**
+     * Must be called holding the lock
+     */
+    private boolean enqueue(Encoded message) {
+        if (queue.size() < queueLimit) {
+            queue.add(message);
+            return true;
+        }
+        switch (policy) {
+            case DROP -> System.out.println("Dropped a message to a slow session");
+            case COALESCE -> {
+                dropStaleGames(message);
+                if (queue.size() >= queueLimit && message.type() == ServerMessageType.LOAD_GAME) {
+                    // No game updates are queued now, so the oldest message makes room for the latest state
+                    queue.poll();
+                }
+                if (queue.size() < queueLimit) {
+                    queue.add(message);
+                    return true;
+                }
+                System.out.println("Dropped a message to a slow session");
+            }
+            case DISCONNECT -> {
+                System.out.println("Disconnecting a slow session");
+                queue.clear();
+                session.close(StatusCode.TRY_AGAIN_LATER, "Too many messages waiting to be sent");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes every queued LOAD_GAME and MOVE_APPLIED from before the newest LOAD_GAME, counting the one being added,
+     * since that carries the whole game
+     */
+    private void dropStaleGames(Encoded message) {
+        boolean newerGame = message.type() == ServerMessageType.LOAD_GAME;
+        Iterator<Encoded> iterator = queue.descendingIterator();
+        while (iterator.hasNext()) {
+            var type = iterator.next().type();
+            if (type != ServerMessageType.LOAD_GAME && type != ServerMessageType.MOVE_APPLIED) {
+                continue;
+            }
+            if (newerGame) {
+                iterator.remove();
+            }
+            newerGame |= type == ServerMessageType.LOAD_GAME;
+        }
+    }
+}
@@ -1,35 +1,68 @@
 package service;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import chess.InvalidMoveException;
-import com.google.gson.Gson;
 import dataaccess.*;
 import models.GameData;
 import org.eclipse.jetty.websocket.api.Session;
 import websocket.commands.UserGameCommand;
 import websocket.messages.ServerMessage;
 
-import java.io.IOException;
-import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 public class WebSocketService {
     private static final AuthDAO AUTH_DAO = DAOs.getAuthDAO();
     private static final GameDAO GAME_DAO = DAOs.getGameDAO();
-    private static final Gson GSON = new Gson();
 
-    private static final ConcurrentHashMap<Integer, HashSet<Session>> CONNECTION_MAP = new ConcurrentHashMap<>();
+    // Each game's sessions. For a session that takes MOVE_APPLIED messages the value is the sequence of the last game
+    // state it was sent, or -1 if it missed one and needs the whole game again. Other sessions have NO_DELTAS.
+    private static final ConcurrentHashMap<Integer, ConcurrentHashMap<Session, Integer>> CONNECTION_MAP =
+            new ConcurrentHashMap<>();
+    private static final int NO_DELTAS = Integer.MIN_VALUE;
+    // Commands for one game run one at a time, so each sees the game as the last one left it
+    private static GameMailboxes mailboxes = new GameMailboxes(
+            Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2, r -> {
+                var thread = new Thread(r, "game-commands");
+                thread.setDaemon(true);
+                return thread;
+            }));
 
     public static void handleCommand(UserGameCommand command, Session session) {
-        switch (command.getCommandType()) {
-            case CONNECT -> handleConnection(command, session);
-            case MAKE_MOVE -> handleMove(command, session);
-            case LEAVE -> handleLeave(command, session);
-            case RESIGN -> handleResign(command, session);
+        // Checked first, so a client can't make a mailbox for a game that doesn't exist
+        if (command.getGameID() == null || !gameExists(command.getGameID())) {
+            sendError(session, "invalid game id");
+            return;
         }
+        mailboxes.submit(command.getGameID(), () -> {
+            switch (command.getCommandType()) {
+                case CONNECT -> handleConnection(command, session);
+                case MAKE_MOVE -> handleMove(command, session);
+                case LEAVE -> handleLeave(command, session);
+                case RESIGN -> handleResign(command, session);
+                case RESYNC -> handleResync(command, session);
+            }
+        });
+    }
+
+    /**
+     * Runs game commands on the given executor instead of the default thread pool. Call before the server starts.
+     */
+    public static void setCommandExecutor(Executor executor) {
+        mailboxes = new GameMailboxes(executor);
+    }
+
+    /**
+     * Stops sending game updates to a closed session
+     */
+    public static void removeSession(Session session) {
+        CONNECTION_MAP.keySet().forEach(gameId -> removeConnection(gameId, session));
+        SessionOutbox.remove(session);
     }
 
     private static void handleConnection(UserGameCommand command, Session session) {
@@ -56,35 +89,25 @@ public class WebSocketService {
             joinRole = "an observer";
         }
 
-        var loadGameMessage = new ServerMessage(
-                ServerMessage.ServerMessageType.LOAD_GAME,
-                game
-            );
-        sendNotification(session, loadGameMessage);
+        int deltaSequence = sendGame(session, game, command.acceptsMoveDeltas());
 
         if (game.isDisabled()) {
             sendNotification(session, new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION, "This game has ended."));
         }
 
-        var connectionList = CONNECTION_MAP.get(command.getGameID());
-        if (connectionList == null) {
-            CONNECTION_MAP.put(command.getGameID(), new HashSet<>(Set.of(session)));
-            return;
-        }
-
+        var connections = getConnections(command.getGameID());
         var message = new ServerMessage(
                 ServerMessage.ServerMessageType.NOTIFICATION,
                 String.format("%s joined the game as %s.", connectingUser, joinRole));
-        sendNotifications(connectionList, message);
+        sendNotifications(connections.keySet(), message);
 
-        connectionList.add(session);
+        addConnection(command.getGameID(), session, deltaSequence);
+        // The session may have closed while this waited in the game's mailbox, after removeSession already ran
+        if (!session.isOpen()) {
+            removeConnection(command.getGameID(), session);
+        }
     }
 
-    private enum GameNotificationState {
-        CHECKMATE,
-        STALEMATE,
-        CHECK
-    }
     private static void handleMove(UserGameCommand command, Session session) {
         var username = authenticateUser(command, session);
         if (username == null) {
@@ -128,44 +151,40 @@ public class WebSocketService {
             sendError(session, "This move is invalid.");
             return;
         }
+        int sequence = game.getPly();
 
-        GameNotificationState notificationState = null;
         var otherTeamColor = (teamColor == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
         var otherUsername = (otherTeamColor == ChessGame.TeamColor.WHITE) ? gameData.whiteUsername() : gameData.blackUsername();
 
-        if (game.isInCheckmate(otherTeamColor)) {
-            game.disableGame();
-            notificationState = GameNotificationState.CHECKMATE;
-        } else if (game.isInStalemate(otherTeamColor)) {
+        var status = game.getStatus(otherTeamColor);
+        if (status == ChessGame.GameStatus.CHECKMATE || status == ChessGame.GameStatus.STALEMATE) {
             game.disableGame();
-            notificationState = GameNotificationState.STALEMATE;
-        } else if (game.isInCheck(otherTeamColor)) {
-            notificationState = GameNotificationState.CHECK;
         }
 
         GAME_DAO.updateGameObject(command.getGameID(), game);
 
-        var sessionList = CONNECTION_MAP.get(command.getGameID());
-        var message = new ServerMessage(ServerMessage.ServerMessageType.LOAD_GAME, game);
-        sendNotifications(sessionList, message);
+        var connections = getConnections(command.getGameID());
+        broadcastMove(connections, game, command.getMove(), sequence, status);
+        var sessionList = connections.keySet();
         sendNotificationsToOthers(
                 sessionList,
                 new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION, username + " has made a move."),
                 session
                 );
-        if (notificationState != null) {
-            var notification = switch (notificationState) {
-                case CHECKMATE -> new ServerMessage(
-                            ServerMessage.ServerMessageType.NOTIFICATION,
-                            otherUsername + " is in checkmate. " + username + " has won the game!");
-                case STALEMATE -> new ServerMessage(
-                            ServerMessage.ServerMessageType.NOTIFICATION,
-                            "The game has ended in a stalemate.");
-                case CHECK -> new ServerMessage(
+        var notification = switch (status) {
+            case CHECKMATE -> new ServerMessage(
                         ServerMessage.ServerMessageType.NOTIFICATION,
-                        otherUsername + " is in check."
-                );
-            };
+                        otherUsername + " is in checkmate. " + username + " has won the game!");
+            case STALEMATE -> new ServerMessage(
+                        ServerMessage.ServerMessageType.NOTIFICATION,
+                        "The game has ended in a stalemate.");
+            case CHECK -> new ServerMessage(
+                    ServerMessage.ServerMessageType.NOTIFICATION,
+                    otherUsername + " is in check."
+            );
+            case NORMAL -> null;
+        };
+        if (notification != null) {
             sendNotifications(sessionList, notification);
         }
     }
@@ -186,9 +205,8 @@ public class WebSocketService {
         } else if (Objects.equals(gameData.blackUsername(), username)) {
             GAME_DAO.updateGame(new GameData(gameData.gameID(), gameData.whiteUsername(), null, gameData.gameName()));
         }
-        var connectionList = CONNECTION_MAP.get(command.getGameID());
-        connectionList.remove(session);
-        sendNotifications(connectionList, new ServerMessage(
+        removeConnection(command.getGameID(), session);
+        sendNotifications(getConnections(command.getGameID()).keySet(), new ServerMessage(
                 ServerMessage.ServerMessageType.NOTIFICATION,
                 String.format("%s has left the game.", username)
         ));
@@ -221,13 +239,101 @@ public class WebSocketService {
         game.disableGame();
         GAME_DAO.updateGameObject(command.getGameID(), game);
 
-        var sessionList = CONNECTION_MAP.get(command.getGameID());
-        sendNotifications(sessionList, new ServerMessage(
+        sendNotifications(getConnections(command.getGameID()).keySet(), new ServerMessage(
                 ServerMessage.ServerMessageType.NOTIFICATION,
                 username + " has resigned. " + otherUsername + " has won the game!")
         );
     }
 
+    /**
+     * @return the game's sessions, or an empty map if it has none. Sessions are only added with addConnection.
+     */
+    private static ConcurrentHashMap<Session, Integer> getConnections(Integer gameId) {
+        var connections = CONNECTION_MAP.get(gameId);
+        return (connections != null) ? connections : new ConcurrentHashMap<>();
+    }
+
+    private static void addConnection(Integer gameId, Session session, int deltaSequence) {
+        CONNECTION_MAP.compute(gameId, (id, connections) -> {
+            if (connections == null) {
+                connections = new ConcurrentHashMap<>();
+            }
+            connections.put(session, deltaSequence);
+            return connections;
+        });
+    }
+
+    /**
+     * Removes a session from a game, and the game's entry once it has no sessions left. Both happen in one
+     * computeIfPresent, so a session being added at the same time can't go into a map that was just dropped.
+     */
+    private static void removeConnection(Integer gameId, Session session) {
+        CONNECTION_MAP.computeIfPresent(gameId, (id, connections) -> {
+            connections.remove(session);
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+
+    private static void handleResync(UserGameCommand command, Session session) {
+        if (authenticateUser(command, session) == null) {
+            return;
+        }
+        var game = getGame(command, session);
+        if (game != null) {
+            int deltaSequence = sendGame(session, game, true);
+            // Only for a session still connected to this game, so a closed or departed one isn't added back
+            getConnections(command.getGameID()).replace(session, deltaSequence);
+        }
+    }
+
+    /**
+     * Sends one session the whole game
+     * @return what to record for the session in its game's connections: the state MOVE_APPLIED messages follow on
+     * from, -1 if the game wasn't sent, or NO_DELTAS if the session doesn't take them
+     */
+    private static int sendGame(Session session, ChessGame game, boolean moveDeltas) {
+        int sequence = game.getPly();
+        boolean queued = SessionOutbox.of(session).send(SessionOutbox.Encoded.of(new ServerMessage(game, sequence)));
+        if (!moveDeltas) {
+            return NO_DELTAS;
+        }
+        return queued ? sequence : -1;
+    }
+
+    /**
+     * Sends a move to every session: as a MOVE_APPLIED to sessions that take them and have every earlier move, and
+     * as the whole game to the rest. Each message is only serialized if some session needs it.
+     */
+    private static void broadcastMove(ConcurrentHashMap<Session, Integer> connections, ChessGame game, ChessMove move,
+                                      int sequence, ChessGame.GameStatus status) {
+        SessionOutbox.Encoded snapshot = null;
+        SessionOutbox.Encoded delta = null;
+        for (var connection : connections.entrySet()) {
+            Session s = connection.getKey();
+            int last = connection.getValue();
+            boolean sendDelta = last == sequence - 1;
+            if (sendDelta && delta == null) {
+                delta = SessionOutbox.Encoded.of(new ServerMessage(move, sequence, status));
+            } else if (!sendDelta && snapshot == null) {
+                snapshot = SessionOutbox.Encoded.of(new ServerMessage(game, sequence));
+            }
+            boolean queued = SessionOutbox.of(s).send(sendDelta ? delta : snapshot);
+            if (last != NO_DELTAS) {
+                // Left alone if the session was removed meanwhile
+                connections.replace(s, last, queued ? sequence : -1);
+            }
+        }
+    }
+
+    private static boolean gameExists(Integer gameId) {
+        try {
+            GAME_DAO.getGame(gameId);
+            return true;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
     private static ChessGame safeGetGame(UserGameCommand command, Session session) {
         var game = getGame(command, session);
         if (game == null) {
@@ -279,35 +385,24 @@ public class WebSocketService {
         }
     }
 
-    private static void sendNotifications(HashSet<Session> connections, ServerMessage message) {
-        connections.forEach((s) -> sendNotification(s, message));
+    private static void sendNotifications(Set<Session> connections, ServerMessage message) {
+        var encoded = SessionOutbox.Encoded.of(message);
+        connections.forEach((s) -> SessionOutbox.of(s).send(encoded));
     }
-    private static void sendNotificationsToOthers(HashSet<Session> connections, ServerMessage message, Session currentSession) {
+    private static void sendNotificationsToOthers(Set<Session> connections, ServerMessage message, Session currentSession) {
+        var encoded = SessionOutbox.Encoded.of(message);
         connections.forEach((s) -> {
             if (s == currentSession) {
                 return;
             }
-            sendNotification(s, message);
+            SessionOutbox.of(s).send(encoded);
         });
     }
     private static void sendNotification(Session s, ServerMessage message) {
-        if (s.isOpen()) {
-            try {
-                s.getRemote().sendString(GSON.toJson(message));
-            } catch (IOException e) {
-                System.out.println("Failed to send notification: " + e.getMessage());
-            }
-        }
+        SessionOutbox.of(s).send(SessionOutbox.Encoded.of(message));
     }
 
     private static void sendError(Session session, String messageString) {
-        var message = new ServerMessage(ServerMessage.ServerMessageType.ERROR, messageString);
-        if (session.isOpen()) {
-            try {
-                session.getRemote().sendString(GSON.toJson(message));
-            } catch (IOException e) {
-                System.out.println("Failed to send error: " + e.getMessage());
-            }
-        }
+        sendNotification(session, new ServerMessage(ServerMessage.ServerMessageType.ERROR, messageString));
     }
 }
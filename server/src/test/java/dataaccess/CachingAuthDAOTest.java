@@ -0,0 +1,99 @@
+package dataaccess;
+
+import dataaccess.memory.MemoryAuthDAO;
+import models.AuthData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+public class CachingAuthDAOTest {
+    /**
+     * Memory DAO that counts token lookups
+     */
+    private static class CountingAuthDAO extends MemoryAuthDAO {
+        int lookups = 0;
+
+        @Override
+        public String getUsernameFromToken(UUID token) throws DataAccessException {
+            lookups++;
+            return super.getUsernameFromToken(token);
+        }
+    }
+
+    private CountingAuthDAO delegate;
+    private final UUID token = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        delegate = new CountingAuthDAO();
+    }
+
+    @Test
+    void testRepeatLookupsAreCached() throws DataAccessException {
+        var cache = new CachingAuthDAO(delegate, 10, Duration.ofHours(1));
+        cache.createAuth(new AuthData("user", token));
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals("user", cache.getUsernameFromToken(token));
+        }
+        Assertions.assertEquals(1, delegate.lookups);
+    }
+
+    @Test
+    void testInvalidTokensAreNotCached() {
+        var cache = new CachingAuthDAO(delegate, 10, Duration.ofHours(1));
+        Assertions.assertThrows(DataAccessException.class, () -> cache.getUsernameFromToken(token));
+        cache.createAuth(new AuthData("user", token));
+        Assertions.assertDoesNotThrow(() -> cache.getUsernameFromToken(token));
+    }
+
+    @Test
+    void testDeleteAuth() throws DataAccessException {
+        var cache = new CachingAuthDAO(delegate, 10, Duration.ofHours(1));
+        cache.createAuth(new AuthData("user", token));
+        cache.getUsernameFromToken(token);
+        cache.deleteAuth(token);
+        Assertions.assertThrows(DataAccessException.class, () -> cache.getUsernameFromToken(token));
+        Assertions.assertThrows(DataAccessException.class, () -> cache.deleteAuth(token));
+    }
+
+    @Test
+    void testClearTable() throws DataAccessException {
+        var cache = new CachingAuthDAO(delegate, 10, Duration.ofHours(1));
+        cache.createAuth(new AuthData("user", token));
+        cache.getUsernameFromToken(token);
+        cache.clearTable();
+        Assertions.assertThrows(DataAccessException.class, () -> cache.getUsernameFromToken(token));
+    }
+
+    @Test
+    void testExpiry() throws DataAccessException {
+        var cache = new CachingAuthDAO(delegate, 10, Duration.ZERO);
+        cache.createAuth(new AuthData("user", token));
+        cache.getUsernameFromToken(token);
+        cache.getUsernameFromToken(token);
+        Assertions.assertEquals(2, delegate.lookups);
+    }
+
+    @Test
+    void testLeastRecentlyUsedEviction() throws DataAccessException {
+        var cache = new CachingAuthDAO(delegate, 2, Duration.ofHours(1));
+        var other = UUID.randomUUID();
+        var third = UUID.randomUUID();
+        cache.createAuth(new AuthData("user", token));
+        cache.createAuth(new AuthData("other", other));
+        cache.createAuth(new AuthData("third", third));
+        cache.getUsernameFromToken(token);
+        cache.getUsernameFromToken(other);
+        cache.getUsernameFromToken(token);
+        cache.getUsernameFromToken(third);
+        Assertions.assertEquals(3, delegate.lookups);
+
+        cache.getUsernameFromToken(token);
+        Assertions.assertEquals(3, delegate.lookups);
+        cache.getUsernameFromToken(other);
+        Assertions.assertEquals(4, delegate.lookups);
+    }
+}
@@ -0,0 +1,87 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import dataaccess.memory.MemoryGameDAO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class CachingGameDAOTest {
+    private static final ChessMove E4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+
+    private MemoryGameDAO delegate;
+    private CachingGameDAO cache;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new MemoryGameDAO();
+        // Long enough that nothing is flushed unless a test asks for it
+        cache = new CachingGameDAO(delegate, 2, Duration.ofHours(1), Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    void testWritesAreDeferredUntilFlush() throws DataAccessException, InvalidMoveException {
+        int id = cache.createGame("test").gameID();
+        ChessGame game = cache.getGameObject(id);
+        game.makeMove(E4);
+        cache.updateGameObject(id, game);
+
+        Assertions.assertEquals(new ChessGame(), delegate.getGameObject(id));
+        Assertions.assertEquals(game, cache.getGameObject(id));
+
+        cache.flush();
+        Assertions.assertEquals(game, delegate.getGameObject(id));
+    }
+
+    @Test
+    void testReturnsCopies() throws DataAccessException, InvalidMoveException {
+        int id = cache.createGame("test").gameID();
+        cache.getGameObject(id).makeMove(E4);
+        Assertions.assertEquals(new ChessGame(), cache.getGameObject(id));
+    }
+
+    @Test
+    void testEvictedGamesKeepUnwrittenMoves() throws DataAccessException, InvalidMoveException {
+        int id = cache.createGame("first").gameID();
+        ChessGame game = cache.getGameObject(id);
+        game.makeMove(E4);
+        cache.updateGameObject(id, game);
+
+        // Pushes the first game out of a two game cache
+        cache.getGameObject(cache.createGame("second").gameID());
+        cache.getGameObject(cache.createGame("third").gameID());
+
+        Assertions.assertEquals(game, cache.getGameObject(id));
+    }
+
+    @Test
+    void testCloseFlushes() throws DataAccessException, InvalidMoveException {
+        int id = cache.createGame("test").gameID();
+        ChessGame game = cache.getGameObject(id);
+        game.makeMove(E4);
+        cache.updateGameObject(id, game);
+
+        cache.close();
+        Assertions.assertEquals(game, delegate.getGameObject(id));
+    }
+
+    @Test
+    void testClearTable() {
+        int id = cache.createGame("test").gameID();
+        cache.updateGameObject(id, new ChessGame());
+        cache.clearTable();
+        Assertions.assertThrows(DataAccessException.class, () -> cache.getGameObject(id));
+        Assertions.assertThrows(DataAccessException.class, () -> cache.getGame(id));
+    }
+}
@@ -4,12 +4,15 @@ import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
 import models.GameData;
+import models.GameListQuery;
 import models.GamesListResponse;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 public class GameDAOTest {
     private static final GameDAO GAME_DAO = DAOs.getGameDAO();
 
@@ -94,6 +97,34 @@ public class GameDAOTest {
         Assertions.assertEquals(game, gameFromDb);
     }
 
+    @Test
+    void testListGamesPages() {
+        var first = initializeDAO();
+        var second = initializeDAO();
+        var third = initializeDAO();
+        Assertions.assertEquals(List.of(first, second),
+                listGames(new GameListQuery(null, 2, false, null, null)));
+        Assertions.assertEquals(List.of(third),
+                listGames(new GameListQuery(second.gameID(), 2, false, null, null)));
+    }
+
+    @Test
+    void testListGamesFilters() {
+        var open = initializeDAO();
+        var full = initializeDAO();
+        GAME_DAO.updateGame(new GameData(open.gameID(), "a", null, open.gameName()));
+        GAME_DAO.updateGame(new GameData(full.gameID(), "b", "c", full.gameName()));
+        Assertions.assertEquals(List.of(open.gameID()),
+                listGames(new GameListQuery(null, null, true, null, null)).stream().map(GameData::gameID).toList());
+        Assertions.assertEquals(List.of(full.gameID()),
+                listGames(new GameListQuery(null, null, false, null, "c")).stream().map(GameData::gameID).toList());
+        Assertions.assertTrue(listGames(new GameListQuery(null, null, false, true, null)).isEmpty());
+    }
+
+    private List<GameData> listGames(GameListQuery query) {
+        return Assertions.assertDoesNotThrow(() -> GAME_DAO.listGames(query));
+    }
+
     private GameData initializeDAO() {
         return GAME_DAO.createGame("a");
     }
@@ -0,0 +1,112 @@
+package service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class GameMailboxesTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final GameMailboxes mailboxes = new GameMailboxes(executor);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void runsEachGameInOrder() throws InterruptedException {
+        int games = 8;
+        int tasksPerGame = 1000;
+        var latch = new CountDownLatch(games * tasksPerGame);
+        var results = new ArrayList<List<Integer>>();
+        for (int game = 0; game < games; game++) {
+            // Unsynchronized on purpose: a game's tasks never run at the same time
+            results.add(new ArrayList<>());
+        }
+        for (int i = 0; i < tasksPerGame; i++) {
+            for (int game = 0; game < games; game++) {
+                int task = i;
+                var result = results.get(game);
+                mailboxes.submit(game, () -> {
+                    result.add(task);
+                    latch.countDown();
+                });
+            }
+        }
+        Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        for (var result : results) {
+            Assertions.assertEquals(tasksPerGame, result.size());
+            for (int i = 0; i < tasksPerGame; i++) {
+                Assertions.assertEquals(i, result.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void runsGamesInParallel() throws InterruptedException {
+        // Each game waits for the other, which only finishes if they run on different threads
+        var bothStarted = new CountDownLatch(2);
+        var done = new CountDownLatch(2);
+        for (int game = 1; game <= 2; game++) {
+            mailboxes.submit(game, () -> {
+                bothStarted.countDown();
+                try {
+                    if (bothStarted.await(5, TimeUnit.SECONDS)) {
+                        done.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void keepsGoingAfterFailure() throws InterruptedException {
+        var latch = new CountDownLatch(1);
+        mailboxes.submit(1, () -> {
+            throw new IllegalStateException("expected by test");
+        });
+        mailboxes.submit(1, latch::countDown);
+        Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void keepsGoingAfterError() throws InterruptedException {
+        var latch = new CountDownLatch(1);
+        mailboxes.submit(1, () -> {
+            throw new AssertionError("expected by test");
+        });
+        mailboxes.submit(1, latch::countDown);
+        Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void removesEmptyMailboxes() throws InterruptedException {
+        int games = 100;
+        var latch = new CountDownLatch(games * 10);
+        for (int i = 0; i < 10; i++) {
+            for (int game = 0; game < games; game++) {
+                mailboxes.submit(game, latch::countDown);
+            }
+        }
+        Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        // Each mailbox is removed just after its last task finishes
+        for (int i = 0; i < 100 && mailboxes.size() > 0; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(0, mailboxes.size());
+
+        var again = new CountDownLatch(1);
+        mailboxes.submit(0, again::countDown);
+        Assertions.assertTrue(again.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,28 @@
+package service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+public class PasswordHasherTest {
+    @Test
+    public void hashAndCheck() {
+        String hash = PasswordHasher.hash("password");
+        Assertions.assertTrue(PasswordHasher.check("password", hash));
+        Assertions.assertFalse(PasswordHasher.check("wrong", hash));
+        Assertions.assertFalse(PasswordHasher.needsRehash(hash));
+    }
+
+    @Test
+    public void malformedHashNeverMatches() {
+        Assertions.assertFalse(PasswordHasher.check("password", "not a hash"));
+        Assertions.assertTrue(PasswordHasher.needsRehash("not a hash"));
+    }
+
+    @Test
+    public void otherCostNeedsRehash() {
+        String hash = BCrypt.hashpw("password", BCrypt.gensalt(4));
+        Assertions.assertTrue(PasswordHasher.needsRehash(hash));
+        Assertions.assertTrue(PasswordHasher.check("password", hash));
+    }
+}
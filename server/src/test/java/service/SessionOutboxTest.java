@@ -0,0 +1,158 @@
+package service;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import websocket.messages.ServerMessage.ServerMessageType;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SessionOutboxTest {
+    /**
+     * Session whose writes only finish when the test says so
+     */
+    private static class SlowSession {
+        final List<String> sent = new ArrayList<>();
+        WriteCallback pending;
+        boolean open = true;
+
+        final Session session = (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isOpen" -> open;
+                    case "getRemote" -> remote();
+                    case "close" -> {
+                        open = false;
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        private RemoteEndpoint remote() {
+            return (RemoteEndpoint) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{RemoteEndpoint.class},
+                    (proxy, method, args) -> {
+                        if (!method.getName().equals("sendString") || args.length != 2) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        Assertions.assertNull(pending, "a second write started before the first finished");
+                        sent.add((String) args[0]);
+                        pending = (WriteCallback) args[1];
+                        return null;
+                    });
+        }
+
+        void finishWrite() {
+            var callback = pending;
+            pending = null;
+            callback.writeSuccess();
+        }
+
+        void finishAll() {
+            while (pending != null) {
+                finishWrite();
+            }
+        }
+    }
+
+    @Test
+    public void sendsInOrderOneAtATime() {
+        var slow = new SlowSession();
+        var outbox = new SessionOutbox(slow.session, SessionOutbox.SlowConsumerPolicy.DROP, 10);
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.NOTIFICATION, "a"));
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.NOTIFICATION, "b"));
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.NOTIFICATION, "c"));
+        Assertions.assertEquals(List.of("a"), slow.sent);
+        Assertions.assertEquals(2, outbox.queued());
+
+        slow.finishAll();
+        Assertions.assertEquals(List.of("a", "b", "c"), slow.sent);
+        Assertions.assertEquals(0, outbox.queued());
+    }
+
+    @Test
+    public void dropPolicy() {
+        var slow = new SlowSession();
+        var outbox = new SessionOutbox(slow.session, SessionOutbox.SlowConsumerPolicy.DROP, 2);
+        for (String text : List.of("a", "b", "c", "d")) {
+            outbox.send(new SessionOutbox.Encoded(ServerMessageType.NOTIFICATION, text));
+        }
+        slow.finishAll();
+        Assertions.assertEquals(List.of("a", "b", "c"), slow.sent);
+    }
+
+    @Test
+    public void coalescePolicyKeepsLatestGame() {
+        var slow = new SlowSession();
+        var outbox = new SessionOutbox(slow.session, SessionOutbox.SlowConsumerPolicy.COALESCE, 3);
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.LOAD_GAME, "game 1"));
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.LOAD_GAME, "game 2"));
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.NOTIFICATION, "moved"));
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.LOAD_GAME, "game 3"));
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.NOTIFICATION, "moved again"));
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.NOTIFICATION, "dropped"));
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.LOAD_GAME, "game 4"));
+        slow.finishAll();
+        Assertions.assertEquals(List.of("game 1", "moved", "moved again", "game 4"), slow.sent);
+    }
+
+    @Test
+    public void coalescePolicyMakesRoomForGame() {
+        var slow = new SlowSession();
+        var outbox = new SessionOutbox(slow.session, SessionOutbox.SlowConsumerPolicy.COALESCE, 2);
+        for (String text : List.of("a", "b", "c")) {
+            outbox.send(new SessionOutbox.Encoded(ServerMessageType.NOTIFICATION, text));
+        }
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.LOAD_GAME, "game"));
+        slow.finishAll();
+        Assertions.assertEquals(List.of("a", "c", "game"), slow.sent);
+    }
+
+    @Test
+    public void coalescePolicyDropsMovesBeforeGame() {
+        var slow = new SlowSession();
+        var outbox = new SessionOutbox(slow.session, SessionOutbox.SlowConsumerPolicy.COALESCE, 3);
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.LOAD_GAME, "game 1"));
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.MOVE_APPLIED, "move 2"));
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.NOTIFICATION, "moved"));
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.MOVE_APPLIED, "move 3"));
+        Assertions.assertFalse(outbox.send(new SessionOutbox.Encoded(ServerMessageType.MOVE_APPLIED, "move 4")));
+        Assertions.assertTrue(outbox.send(new SessionOutbox.Encoded(ServerMessageType.LOAD_GAME, "game 4")));
+        slow.finishAll();
+        Assertions.assertEquals(List.of("game 1", "moved", "game 4"), slow.sent);
+    }
+
+    @Test
+    public void disconnectPolicy() {
+        var slow = new SlowSession();
+        var outbox = new SessionOutbox(slow.session, SessionOutbox.SlowConsumerPolicy.DISCONNECT, 1);
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.NOTIFICATION, "a"));
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.NOTIFICATION, "b"));
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.NOTIFICATION, "c"));
+        Assertions.assertFalse(slow.open);
+
+        slow.finishAll();
+        outbox.send(new SessionOutbox.Encoded(ServerMessageType.NOTIFICATION, "d"));
+        Assertions.assertEquals(List.of("a"), slow.sent);
+    }
+
+    @Test
+    public void closedSessionsGetNoOutbox() {
+        var slow = new SlowSession();
+        var outbox = SessionOutbox.of(slow.session);
+        Assertions.assertTrue(SessionOutbox.isKept(slow.session));
+        Assertions.assertSame(outbox, SessionOutbox.of(slow.session));
+
+        slow.open = false;
+        SessionOutbox.remove(slow.session);
+        // A broadcast that was already going out when the session closed
+        var late = new SessionOutbox.Encoded(ServerMessageType.NOTIFICATION, "late");
+        Assertions.assertFalse(SessionOutbox.of(slow.session).send(late));
+        Assertions.assertFalse(SessionOutbox.isKept(slow.session));
+        Assertions.assertTrue(slow.sent.isEmpty());
+    }
+}
@@ -0,0 +1,155 @@
+package chess;
+
+import chess.moves.AttackTables;
+import chess.moves.SlidingAttacks;
+
+import java.util.Arrays;
+
+/**
+ * Bitboard view of a chess board: one 64-bit word per color/piece type combination, plus cached occupancy words.
+ * Square indexes run from 0 (row 1, column 1) to 63 (row 8, column 8), so square = (row - 1) * 8 + (column - 1).
+ * <p>
+ * ChessBoard keeps this in sync with its piece array on every addPiece call, so move generation and check
+ * detection can work on primitive long math instead of walking ChessPosition objects.
+ */
+public class Bitboards {
+    private static final int TYPE_COUNT = ChessPiece.PieceType.values().length;
+
+    private final long[] pieces = new long[TYPE_COUNT * 2];
+    private final long[] colors = new long[2];
+    private long occupied;
+    private long pieceKey;
+
+    /**
+     * Builds a set of bitboards from a piece array indexed [row - 1][column - 1]
+     */
+    public static Bitboards fromArray(ChessPiece[][] board) {
+        Bitboards bitboards = new Bitboards();
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                if (board[r][c] != null) {
+                    bitboards.put(r * 8 + c, board[r][c]);
+                }
+            }
+        }
+        return bitboards;
+    }
+
+    public static int square(int row, int column) {
+        return (row - 1) * 8 + (column - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static ChessPosition toPosition(int square) {
+        return ChessPosition.of(row(square), column(square));
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    private static int index(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * TYPE_COUNT + type.ordinal();
+    }
+
+    /**
+     * Adds a piece to a square. The square is expected to be empty in these bitboards.
+     */
+    void put(int square, ChessPiece piece) {
+        long bit = bit(square);
+        pieces[index(piece.getTeamColor(), piece.getPieceType())] |= bit;
+        colors[piece.getTeamColor().ordinal()] |= bit;
+        occupied |= bit;
+        pieceKey ^= Zobrist.piece(piece.getTeamColor(), piece.getPieceType(), square);
+    }
+
+    /**
+     * Removes a piece from a square. The piece must be the one currently recorded on that square.
+     */
+    void remove(int square, ChessPiece piece) {
+        long mask = ~bit(square);
+        pieces[index(piece.getTeamColor(), piece.getPieceType())] &= mask;
+        colors[piece.getTeamColor().ordinal()] &= mask;
+        occupied &= mask;
+        pieceKey ^= Zobrist.piece(piece.getTeamColor(), piece.getPieceType(), square);
+    }
+
+    /**
+     * @return every square holding a piece of the given color and type
+     */
+    public long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[index(color, type)];
+    }
+
+    /**
+     * @return every square holding a piece of the given color
+     */
+    public long occupancy(ChessGame.TeamColor color) {
+        return colors[color.ordinal()];
+    }
+
+    /**
+     * @return every square holding a piece of either color
+     */
+    public long occupancy() {
+        return occupied;
+    }
+
+    /**
+     * @return the Zobrist key of the piece placement alone, kept up to date as pieces are added and removed
+     */
+    public long pieceKey() {
+        return pieceKey;
+    }
+
+    /**
+     * @return True if both sets of bitboards have the same color and type of piece on every square
+     */
+    public boolean samePieces(Bitboards other) {
+        return pieceKey == other.pieceKey && Arrays.equals(pieces, other.pieces);
+    }
+
+    /**
+     * @return the square of the given team's king, or -1 if that team has no king on the board
+     */
+    public int kingSquare(ChessGame.TeamColor color) {
+        long king = pieces(color, ChessPiece.PieceType.KING);
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * Finds every piece of a team that attacks a square. This looks outward from the square: a piece of type X
+     * attacks the square exactly when an X on the square would attack it.
+     *
+     * @param occupancy the blockers to use for sliding pieces, normally occupancy()
+     * @return bitboard of the attacking pieces
+     */
+    public long attackersOf(int square, ChessGame.TeamColor byColor, long occupancy) {
+        long rooksAndQueens = pieces(byColor, ChessPiece.PieceType.ROOK) | pieces(byColor, ChessPiece.PieceType.QUEEN);
+        long bishopsAndQueens = pieces(byColor, ChessPiece.PieceType.BISHOP) | pieces(byColor, ChessPiece.PieceType.QUEEN);
+        return (AttackTables.pawn(byColor.opponent(), square) & pieces(byColor, ChessPiece.PieceType.PAWN))
+                | (AttackTables.knight(square) & pieces(byColor, ChessPiece.PieceType.KNIGHT))
+                | (AttackTables.king(square) & pieces(byColor, ChessPiece.PieceType.KING))
+                | (SlidingAttacks.rook(square, occupancy) & rooksAndQueens)
+                | (SlidingAttacks.bishop(square, occupancy) & bishopsAndQueens);
+    }
+
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor, long occupancy) {
+        return attackersOf(square, byColor, occupancy) != 0;
+    }
+
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(square, byColor, occupied);
+    }
+}
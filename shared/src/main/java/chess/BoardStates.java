@@ -1,8 +1,5 @@
 package chess;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class BoardStates {
     public static ChessPiece[][] defaultState() {
         var board = new ChessPiece[8][8];
@@ -32,11 +29,4 @@ public class BoardStates {
 
         return board;
     }
-
-    public static Map<ChessGame.TeamColor, ChessPosition> defaultKingLoc() {
-        return new HashMap<>(Map.of(
-                ChessGame.TeamColor.WHITE, new ChessPosition(1, 5),
-                ChessGame.TeamColor.BLACK, new ChessPosition(8, 5)
-        ));
-    }
 }
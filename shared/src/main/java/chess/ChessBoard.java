@@ -1,8 +1,6 @@
 package chess;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import chess.moves.KingMoves;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
@@ -13,10 +11,10 @@ import java.util.Objects;
 public class ChessBoard {
 
     private ChessPiece[][] board;
-    private Map<ChessGame.TeamColor, ChessPosition> kingPositions;
+    // Rebuilt lazily from the piece array, which is the only serialized state
+    private transient Bitboards bitboards;
     public ChessBoard() {
         board = new ChessPiece[8][8];
-        kingPositions = new HashMap<>();
     }
 
     /**
@@ -31,8 +29,14 @@ public class ChessBoard {
         if (this.verifyPosition(position)) {
             throw new RuntimeException("Invalid position");
         }
-        if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING) {
-            kingPositions.put(piece.getTeamColor(), position);
+        if (bitboards != null) {
+            int square = Bitboards.square(position);
+            if (board[row][col] != null) {
+                bitboards.remove(square, board[row][col]);
+            }
+            if (piece != null) {
+                bitboards.put(square, piece);
+            }
         }
 
         board[row][col] = piece;
@@ -55,7 +59,113 @@ public class ChessBoard {
      */
     public void resetBoard() {
         board = BoardStates.defaultState();
-        kingPositions = BoardStates.defaultKingLoc();
+        bitboards = null;
+    }
+
+    /**
+     * Gets the bitboard view of this board, building it from the piece array if needed
+     * (e.g. after the board was deserialized).
+     */
+    public Bitboards getBitboards() {
+        if (bitboards == null) {
+            bitboards = Bitboards.fromArray(board);
+        }
+        return bitboards;
+    }
+
+    /**
+     * Everything needed to take back a move made with makeMove
+     *
+     * @param move the move that was made
+     * @param piece the piece that moved (the pawn, for a promotion)
+     * @param pieceSpecial the moved piece's special flag before the move
+     * @param captured the captured piece, or null
+     * @param capturedPosition where the captured piece stood (differs from the move's end for en passant)
+     * @param rookStart where the castling rook started, or null if the move wasn't a castle
+     * @param rookEnd where the castling rook ended, or null if the move wasn't a castle
+     * @param expiredEnPassant squares of the mover's pawns that lost the ability to be taken via en passant
+     */
+    public record UndoInfo(
+            ChessMove move,
+            ChessPiece piece,
+            boolean pieceSpecial,
+            ChessPiece captured,
+            ChessPosition capturedPosition,
+            ChessPosition rookStart,
+            ChessPosition rookEnd,
+            long expiredEnPassant
+    ) { }
+
+    /**
+     * Makes a move on the board, including en passant captures, castling, promotion and the special flags that
+     * track castling and en passant. Doesn't check that the move is valid; it must at least be one the piece
+     * can make (see ChessPiece.pieceMoves).
+     *
+     * @param move the move to make
+     * @return the information needed to take the move back with unmakeMove
+     */
+    public UndoInfo makeMove(ChessMove move) {
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        ChessPiece piece = getPiece(start);
+        boolean pieceSpecial = piece.getSpecial();
+
+        // A pawn can only be taken via en passant directly after its double move, so the mover's flags expire now
+        long expiredEnPassant = 0;
+        for (long pawns = getBitboards().pieces(piece.getTeamColor(), ChessPiece.PieceType.PAWN); pawns != 0; pawns &= pawns - 1) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            ChessPiece pawn = getPiece(Bitboards.toPosition(square));
+            if (pawn.getSpecial()) {
+                pawn.setSpecial(false);
+                expiredEnPassant |= Bitboards.bit(square);
+            }
+        }
+
+        ChessPiece captured = getPiece(end);
+        ChessPosition capturedPosition = end;
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN && captured == null && move.horizontalLength() > 0) {
+            capturedPosition = ChessPosition.of(start.getRow(), end.getColumn());
+            captured = getPiece(capturedPosition);
+            addPiece(capturedPosition, null);
+        }
+
+        ChessPosition rookStart = null;
+        ChessPosition rookEnd = null;
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && move.horizontalLength() > 1) {
+            boolean positiveDirection = end.getColumn() > start.getColumn();
+            rookStart = KingMoves.getDefaultRookFromKing(start, positiveDirection);
+            rookEnd = end.add(0, positiveDirection ? -1 : 1);
+            addPiece(rookEnd, getPiece(rookStart));
+            addPiece(rookStart, null);
+        }
+
+        addPiece(start, null);
+        addPiece(end, (move.getPromotionPiece() == null)
+                ? piece
+                : new ChessPiece(piece.getTeamColor(), move.getPromotionPiece()));
+        switch (piece.getPieceType()) {
+            case KING, ROOK -> piece.setSpecial(false);
+            case PAWN -> piece.setSpecial(move.verticalLength() > 1);
+        }
+
+        return new UndoInfo(move, piece, pieceSpecial, captured, capturedPosition, rookStart, rookEnd, expiredEnPassant);
+    }
+
+    /**
+     * Takes back a move made with makeMove. Moves must be taken back in the reverse order they were made.
+     */
+    public void unmakeMove(UndoInfo undo) {
+        addPiece(undo.move().getEndPosition(), null);
+        addPiece(undo.capturedPosition(), undo.captured());
+        addPiece(undo.move().getStartPosition(), undo.piece());
+        undo.piece().setSpecial(undo.pieceSpecial());
+        if (undo.rookStart() != null) {
+            addPiece(undo.rookStart(), getPiece(undo.rookEnd()));
+            addPiece(undo.rookEnd(), null);
+        }
+        for (long pawns = undo.expiredEnPassant(); pawns != 0; pawns &= pawns - 1) {
+            getPiece(Bitboards.toPosition(Long.numberOfTrailingZeros(pawns))).setSpecial(true);
+        }
     }
 
     @Override
@@ -63,18 +173,11 @@ public class ChessBoard {
         if (obj == this) {
             return true;
         }
-        if (obj.getClass() != ChessBoard.class) {
+        if (obj == null || obj.getClass() != ChessBoard.class) {
             return false;
         }
         ChessBoard otherCB = (ChessBoard) obj;
-        for(int i = 0; i < this.board.length; i++) {
-            for(int j = 0; j < this.board[i].length; j++) {
-                if (!Objects.equals(otherCB.board[i][j], this.board[i][j])) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return getBitboards().samePieces(otherCB.getBitboards());
     }
 
     /**
@@ -86,8 +189,20 @@ public class ChessBoard {
         return row > 7 || row < 0 || col > 7 || col < 0;
     }
 
+    /**
+     * Checks if any piece of a team attacks a square
+     *
+     * @param square the square to check, or null (which is never attacked)
+     * @param byColor the attacking team
+     * @return True if a piece of byColor could capture on the square
+     */
+    public boolean isSquareAttacked(ChessPosition square, ChessGame.TeamColor byColor) {
+        return square != null && getBitboards().isSquareAttacked(Bitboards.square(square), byColor);
+    }
+
     public ChessPosition getKingPos(ChessGame.TeamColor color) {
-        return kingPositions.get(color);
+        int square = getBitboards().kingSquare(color);
+        return square < 0 ? null : Bitboards.toPosition(square);
     }
 
     @Override
@@ -106,8 +221,62 @@ public class ChessBoard {
         return sb.toString();
     }
 
+    /**
+     * Checks if a team still has the right to castle on one side: its king and that side's rook are on their
+     * starting squares and neither has moved. This doesn't check if castling is possible right now.
+     */
+    public boolean hasCastlingRight(ChessGame.TeamColor color, boolean kingside) {
+        int row = (color == ChessGame.TeamColor.WHITE) ? 1 : 8;
+        ChessPiece king = getPiece(ChessPosition.of(row, 5));
+        ChessPiece rook = getPiece(ChessPosition.of(row, kingside ? 8 : 1));
+        return king != null && king.getPieceType() == ChessPiece.PieceType.KING && king.getTeamColor() == color
+                && king.getSpecial()
+                && rook != null && rook.getPieceType() == ChessPiece.PieceType.ROOK && rook.getTeamColor() == color
+                && rook.getSpecial();
+    }
+
+    /**
+     * Finds a pawn of the team that just moved that can be taken via en passant. Pawns of the team to move keep
+     * their flag until that team moves, but they can't be taken any more, so they aren't counted.
+     *
+     * @param justMoved the team that made the last move
+     * @return the pawn's column (1-8), or 0 if there isn't one
+     */
+    public int enPassantColumn(ChessGame.TeamColor justMoved) {
+        int row = (justMoved == ChessGame.TeamColor.WHITE) ? 4 : 5;
+        for (int col = 1; col <= 8; col++) {
+            ChessPiece pawn = getPiece(ChessPosition.of(row, col));
+            if (pawn != null && pawn.getPieceType() == ChessPiece.PieceType.PAWN && pawn.getTeamColor() == justMoved
+                    && pawn.getSpecial()) {
+                return col;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets a Zobrist key for this board covering the pieces and castling rights. Positions that match in both always
+     * have the same key. Which pawn can be taken via en passant depends on the side to move, which isn't part of a
+     * board, so ChessGame.zobristKey adds both.
+     */
+    public long zobristKey() {
+        long key = getBitboards().pieceKey();
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            if (hasCastlingRight(color, true)) {
+                key ^= Zobrist.castling(color, true);
+            }
+            if (hasCastlingRight(color, false)) {
+                key ^= Zobrist.castling(color, false);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Hashes the piece placement only, to match equals (which ignores castling and en passant state)
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(this.toString());
+        return Long.hashCode(getBitboards().pieceKey());
     }
 }
@@ -1,7 +1,9 @@
 package chess;
 
+import chess.moves.IntMoveList;
+import chess.moves.LegalMoves;
+
 import java.util.Collection;
-import java.util.Objects;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -10,11 +12,34 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessGame extends GameHelpers {
+    // The last status worked out by getStatus and the Zobrist key of the position and team it was worked out for
+    private transient GameStatus status;
+    private transient long statusKey;
+    // Moves since the last capture or pawn move, and the number of the move white or black is on (starting at 1)
+    private int halfmoveClock;
+    private int fullmoveNumber;
 
     public ChessGame() {
         turn = TeamColor.WHITE;
         board = new ChessBoard();
         board.resetBoard();
+        fullmoveNumber = 1;
+    }
+
+    /**
+     * Loads a game from Forsyth-Edwards Notation
+     *
+     * @throws IllegalArgumentException if the string isn't valid FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return this game's position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.write(this);
     }
 
     /**
@@ -38,7 +63,21 @@ public class ChessGame extends GameHelpers {
      */
     public enum TeamColor {
         WHITE,
-        BLACK
+        BLACK;
+
+        public TeamColor opponent() {
+            return this == WHITE ? BLACK : WHITE;
+        }
+    }
+
+    /**
+     * Where a team stands in a position: free to move, in check, or out of moves with or without being in check
+     */
+    public enum GameStatus {
+        NORMAL,
+        CHECK,
+        CHECKMATE,
+        STALEMATE
     }
 
     /**
@@ -50,12 +89,20 @@ public class ChessGame extends GameHelpers {
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
         ChessPiece piece = board.getPiece(startPosition);
-        Collection<ChessMove> moves = piece.pieceMoves(board, startPosition);
-        moves.removeIf(move ->
-                checkHypotheticalCheck(board, move) ||
-                        (checkIfCastle(piece, move) && checkCheck(piece.getTeamColor(), board, move.getStartPosition()))
-        );
-        return moves;
+        if (piece == null) {
+            return null;
+        }
+        return LegalMoves.getMoves(board, piece.getTeamColor(), Bitboards.bit(Bitboards.square(startPosition)));
+    }
+
+    /**
+     * Gets every valid move for a team, whether or not it is that team's turn
+     *
+     * @param team the team to get valid moves for
+     * @return Collection of valid moves, empty if the team has none
+     */
+    public Collection<ChessMove> allLegalMoves(TeamColor team) {
+        return LegalMoves.getMoves(board, team);
     }
 
     /**
@@ -66,10 +113,16 @@ public class ChessGame extends GameHelpers {
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
         ChessPiece piece = board.getPiece(move.getStartPosition());
-        if (piece == null || piece.getTeamColor() != turn) {
+        if (piece == null || piece.getTeamColor() != turn || !validMoves(move.getStartPosition()).contains(move)) {
             throw new InvalidMoveException();
         }
-        makeMoveOnBoard(move, board, false);
+        boolean resetsClock = piece.getPieceType() == ChessPiece.PieceType.PAWN || board.getPiece(move.getEndPosition()) != null;
+        board.makeMove(move);
+        halfmoveClock = resetsClock ? 0 : halfmoveClock + 1;
+        if (turn == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
+        turn = turn.opponent();
     }
 
     /**
@@ -90,9 +143,7 @@ public class ChessGame extends GameHelpers {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        return checkCheck(teamColor, board, board.getKingPos(teamColor))
-                && checkSurroundings(board, board.getKingPos(teamColor))
-                && teamOutOfMoves(teamColor, board, true);
+        return getStatus(teamColor) == GameStatus.CHECKMATE;
     }
 
     /**
@@ -103,9 +154,31 @@ public class ChessGame extends GameHelpers {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        return !checkCheck(teamColor, board, board.getKingPos(teamColor)) &&
-                checkSurroundings(board, board.getKingPos(teamColor)) &&
-                teamOutOfMoves(teamColor, board, false);
+        return getStatus(teamColor) == GameStatus.STALEMATE;
+    }
+
+    /**
+     * Works out check, checkmate and stalemate together with a single legal move generation. The result is kept
+     * until the position changes, so asking about the same team again doesn't generate any moves.
+     *
+     * @param teamColor which team to get the status of
+     * @return the team's status in the current position
+     */
+    public GameStatus getStatus(TeamColor teamColor) {
+        long key = positionKey(teamColor);
+        if (status == null || key != statusKey) {
+            boolean inCheck = checkCheck(teamColor, board, board.getKingPos(teamColor));
+            IntMoveList moves = new IntMoveList();
+            LegalMoves.generate(moves, board, teamColor, -1L);
+            boolean outOfMoves = moves.isEmpty();
+            if (outOfMoves) {
+                status = inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+            } else {
+                status = inCheck ? GameStatus.CHECK : GameStatus.NORMAL;
+            }
+            statusKey = key;
+        }
+        return status;
     }
 
     /**
@@ -135,9 +208,62 @@ public class ChessGame extends GameHelpers {
 
     public boolean isDisabled() { return turn == null; }
 
+    /**
+     * @return how many moves have been made by either team, going by the fullmove number and the team to move
+     */
+    public int getPly() {
+        return (fullmoveNumber - 1) * 2 + (turn == TeamColor.BLACK ? 1 : 0);
+    }
+
+    /**
+     * @return the number of moves since the last capture or pawn move, for the fifty-move rule
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the number of the current full move, starting at 1 and going up after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    void setClocks(int halfmoveClock, int fullmoveNumber) {
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Gets a Zobrist key for this game's position: the board's key plus the side to move and the pawn that can be
+     * taken via en passant. The same position reached by different moves has the same key.
+     */
+    public long zobristKey() {
+        return positionKey(turn);
+    }
+
+    /**
+     * Key for the position with the given team to move. Only a pawn of the other team can be taken via en passant;
+     * the moving team's own flags are left over from its last move and don't count.
+     */
+    private long positionKey(TeamColor toMove) {
+        long key = board.zobristKey() ^ turnKey(toMove);
+        if (toMove != null) {
+            int enPassantColumn = board.enPassantColumn(toMove.opponent());
+            if (enPassantColumn != 0) {
+                key ^= Zobrist.enPassant(enPassantColumn);
+            }
+        }
+        return key;
+    }
+
+    private static long turnKey(TeamColor team) {
+        return (team == TeamColor.BLACK) ? Zobrist.blackToMove() : 0;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(turn, board.toString());
+        return Long.hashCode(board.getBitboards().pieceKey() ^ turnKey(turn));
     }
 
     @Override
@@ -149,6 +275,6 @@ public class ChessGame extends GameHelpers {
             return false;
         }
         ChessGame cg = (ChessGame) obj;
-        return turn.equals(cg.getTeamTurn()) && board.equals(cg.getBoard());
+        return turn == cg.getTeamTurn() && board.equals(cg.getBoard());
     }
 }
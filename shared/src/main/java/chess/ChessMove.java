@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -11,6 +9,30 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessMove {
+    // Shared instances for every from/to square pair, indexed from * 64 + to using Bitboards squares
+    private static final ChessMove[] MOVES = new ChessMove[64 * 64];
+    // Shared promotion instances, only filled in for pawn steps onto the last row
+    private static final ChessMove[][] PROMOTIONS = new ChessMove[64 * 64][];
+    private static final int TYPE_COUNT = ChessPiece.PieceType.values().length;
+
+    static {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                ChessPosition start = ChessPosition.of(Bitboards.row(from), Bitboards.column(from));
+                ChessPosition end = ChessPosition.of(Bitboards.row(to), Bitboards.column(to));
+                MOVES[from * 64 + to] = new ChessMove(start, end, null);
+
+                boolean lastRow = (start.getRow() == 7 && end.getRow() == 8) || (start.getRow() == 2 && end.getRow() == 1);
+                if (lastRow && Math.abs(start.getColumn() - end.getColumn()) <= 1) {
+                    ChessMove[] promotions = new ChessMove[TYPE_COUNT];
+                    for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                        promotions[type.ordinal()] = new ChessMove(start, end, type);
+                    }
+                    PROMOTIONS[from * 64 + to] = promotions;
+                }
+            }
+        }
+    }
 
     private final ChessPosition start;
     private final ChessPosition end;
@@ -23,6 +45,39 @@ public class ChessMove {
         this.promotion = promotionPiece;
     }
 
+    /**
+     * Gets the shared instance of a move between two squares instead of allocating a new one
+     *
+     * @param from Bitboards square index of the start position
+     * @param to Bitboards square index of the end position
+     * @param promotion piece to promote to, or null
+     */
+    public static ChessMove of(int from, int to, ChessPiece.PieceType promotion) {
+        if (promotion == null) {
+            return MOVES[from * 64 + to];
+        }
+        ChessMove[] promotions = PROMOTIONS[from * 64 + to];
+        if (promotions == null) {
+            return new ChessMove(Bitboards.toPosition(from), Bitboards.toPosition(to), promotion);
+        }
+        return promotions[promotion.ordinal()];
+    }
+
+    /**
+     * Gets the shared instance of a move between two positions instead of allocating a new one. Moves to or from
+     * a position off the board get a new instance.
+     */
+    public static ChessMove of(ChessPosition start, ChessPosition end, ChessPiece.PieceType promotion) {
+        if (!onBoard(start) || !onBoard(end)) {
+            return new ChessMove(start, end, promotion);
+        }
+        return of(Bitboards.square(start), Bitboards.square(end), promotion);
+    }
+
+    private static boolean onBoard(ChessPosition position) {
+        return position.getRow() >= 1 && position.getRow() <= 8 && position.getColumn() >= 1 && position.getColumn() <= 8;
+    }
+
     /**
      * @return ChessPosition of starting location
      */
@@ -59,7 +114,7 @@ public class ChessMove {
         if (obj == this) {
             return true;
         }
-        if (obj.getClass() != ChessMove.class) {
+        if (obj == null || obj.getClass() != ChessMove.class) {
             return false;
         }
         ChessMove cm = (ChessMove) obj;
@@ -68,18 +123,8 @@ public class ChessMove {
 
     @Override
     public int hashCode() {
-        return Objects.hash(start, end, promotion);
-    }
-
-    /**
-     * Helper function to convert a move to a position. Doesn't support promotion pieces.
-     */
-    public static List<ChessMove> positionsToMoves(List<ChessPosition> positions, ChessPosition currentPosition) {
-        List<ChessMove> output = new ArrayList<>();
-        for (ChessPosition position : positions) {
-            output.add(new ChessMove(currentPosition, position, null));
-        }
-        return output;
+        // Same value as Objects.hash(start, end, promotion) without the varargs array
+        return 31 * (31 * (31 + Objects.hashCode(start)) + Objects.hashCode(end)) + Objects.hashCode(promotion);
     }
 
     /**
@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
@@ -9,6 +7,14 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessPosition {
+    // One shared instance per square, indexed the same way as Bitboards squares
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int i = 0; i < SQUARES.length; i++) {
+            SQUARES[i] = new ChessPosition((i >>> 3) + 1, (i & 7) + 1);
+        }
+    }
 
     private final int row;
     private final int col;
@@ -17,6 +23,17 @@ public class ChessPosition {
         this.col = col;
     }
 
+    /**
+     * Gets the shared instance for a square instead of allocating a new one. Positions off the board are still
+     * allowed (e.g. as a step past the edge) and get a new instance.
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -43,7 +60,7 @@ public class ChessPosition {
         if (this == obj) {
             return true;
         }
-        if (obj.getClass() != ChessPosition.class) {
+        if (obj == null || obj.getClass() != ChessPosition.class) {
             return false;
         } else {
             ChessPosition cp = (ChessPosition) obj;
@@ -53,10 +70,10 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return 31 * (31 + row) + col; // Same value as Objects.hash(row, col) without boxing
     }
 
     public ChessPosition add(int rowAdd, int columnAdd) {
-        return new ChessPosition(row + rowAdd, col + columnAdd);
+        return of(row + rowAdd, col + columnAdd);
     }
 }
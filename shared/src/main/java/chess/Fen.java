@@ -0,0 +1,209 @@
+package chess;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation, e.g. the starting position
+ * "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1".
+ * <p>
+ * Castling rights and the en passant square are stored in the special flags of the pieces involved: a king or rook
+ * with a castling right hasn't moved, and the pawn that can be taken via en passant just double moved.
+ */
+public class Fen {
+    public static final String STARTING_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /**
+     * @throws IllegalArgumentException if the string isn't valid FEN
+     */
+    public static ChessGame parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4 || fields.length > 6) {
+            throw new IllegalArgumentException("FEN needs 4 to 6 fields: " + fen);
+        }
+        ChessBoard board = parsePlacement(fields[0]);
+        ChessGame.TeamColor turn = switch (fields[1]) {
+            case "w" -> ChessGame.TeamColor.WHITE;
+            case "b" -> ChessGame.TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Invalid side to move: " + fields[1]);
+        };
+        parseCastling(board, fields[2]);
+        parseEnPassant(board, turn, fields[3]);
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        game.setClocks(fields.length > 4 ? parseNumber(fields[4]) : 0, fields.length > 5 ? parseNumber(fields[5]) : 1);
+        return game;
+    }
+
+    /**
+     * @throws IllegalStateException if the game is disabled, since it then has no side to move
+     */
+    public static String write(ChessGame game) {
+        if (game.isDisabled()) {
+            throw new IllegalStateException("A disabled game has no side to move");
+        }
+        ChessBoard board = game.getBoard();
+        StringBuilder sb = new StringBuilder();
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(ChessPosition.of(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append(empty);
+                    empty = 0;
+                }
+                sb.append(pieceChar(piece));
+            }
+            if (empty > 0) {
+                sb.append(empty);
+            }
+            if (row > 1) {
+                sb.append('/');
+            }
+        }
+
+        sb.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+        int length = sb.length();
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (boolean kingside : new boolean[]{true, false}) {
+                if (board.hasCastlingRight(color, kingside)) {
+                    char c = kingside ? 'k' : 'q';
+                    sb.append(color == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c);
+                }
+            }
+        }
+        if (sb.length() == length) {
+            sb.append('-');
+        }
+
+        sb.append(' ').append(enPassantSquare(board, game.getTeamTurn()));
+        sb.append(' ').append(game.getHalfmoveClock()).append(' ').append(game.getFullmoveNumber());
+        return sb.toString();
+    }
+
+    private static ChessBoard parsePlacement(String placement) {
+        String[] rows = placement.split("/");
+        if (rows.length != 8) {
+            throw new IllegalArgumentException("FEN needs 8 rows: " + placement);
+        }
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < 8; i++) {
+            int row = 8 - i;
+            int col = 1;
+            for (char c : rows[i].toCharArray()) {
+                if (c >= '1' && c <= '8') {
+                    col += c - '0';
+                } else {
+                    if (col > 8) {
+                        throw new IllegalArgumentException("FEN row " + row + " has more than 8 squares: " + rows[i]);
+                    }
+                    ChessPiece piece = new ChessPiece(Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK, pieceType(c));
+                    if (piece.getPieceType() != ChessPiece.PieceType.PAWN) {
+                        piece.setSpecial(false); // Castling rights are given back from the castling field
+                    }
+                    board.addPiece(ChessPosition.of(row, col++), piece);
+                }
+            }
+            if (col != 9) {
+                throw new IllegalArgumentException("FEN row " + row + " doesn't have 8 squares: " + rows[i]);
+            }
+        }
+        return board;
+    }
+
+    private static void parseCastling(ChessBoard board, String castling) {
+        if (castling.equals("-")) {
+            return;
+        }
+        for (char c : castling.toCharArray()) {
+            int row = Character.isUpperCase(c) ? 1 : 8;
+            int rookColumn = switch (Character.toLowerCase(c)) {
+                case 'k' -> 8;
+                case 'q' -> 1;
+                default -> throw new IllegalArgumentException("Invalid castling rights: " + castling);
+            };
+            ChessGame.TeamColor color = (row == 1) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            ChessPiece king = board.getPiece(ChessPosition.of(row, 5));
+            ChessPiece rook = board.getPiece(ChessPosition.of(row, rookColumn));
+            if (!isPiece(king, color, ChessPiece.PieceType.KING) || !isPiece(rook, color, ChessPiece.PieceType.ROOK)) {
+                throw new IllegalArgumentException("Castling right " + c + " without the king and rook in place");
+            }
+            king.setSpecial(true);
+            rook.setSpecial(true);
+        }
+    }
+
+    /**
+     * Marks the pawn that just double moved past the en passant square
+     */
+    private static void parseEnPassant(ChessBoard board, ChessGame.TeamColor turn, String square) {
+        if (square.equals("-")) {
+            return;
+        }
+        int col = square.length() == 2 ? square.charAt(0) - 'a' + 1 : 0;
+        int targetRow = (turn == ChessGame.TeamColor.WHITE) ? 6 : 3;
+        if (col < 1 || col > 8 || square.charAt(1) - '0' != targetRow) {
+            throw new IllegalArgumentException("Invalid en passant square: " + square);
+        }
+        int pawnRow = (turn == ChessGame.TeamColor.WHITE) ? 5 : 4;
+        ChessPiece pawn = board.getPiece(ChessPosition.of(pawnRow, col));
+        if (!isPiece(pawn, turn.opponent(), ChessPiece.PieceType.PAWN)) {
+            throw new IllegalArgumentException("En passant square " + square + " without a pawn that just double moved");
+        }
+        pawn.setSpecial(true);
+    }
+
+    /**
+     * @return the square behind a pawn of the team that just moved that can be taken via en passant, or "-"
+     */
+    private static String enPassantSquare(ChessBoard board, ChessGame.TeamColor turn) {
+        int col = board.enPassantColumn(turn.opponent());
+        if (col == 0) {
+            return "-";
+        }
+        return "" + (char) ('a' + col - 1) + (turn == ChessGame.TeamColor.WHITE ? 6 : 3);
+    }
+
+    private static boolean isPiece(ChessPiece piece, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
+    }
+
+    private static ChessPiece.PieceType pieceType(char c) {
+        return switch (Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Invalid piece: " + c);
+        };
+    }
+
+    private static char pieceChar(ChessPiece piece) {
+        char c = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case ROOK -> 'r';
+            case PAWN -> 'p';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c;
+    }
+
+    private static int parseNumber(String field) {
+        try {
+            int value = Integer.parseInt(field);
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid move clock: " + field);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid move clock: " + field, e);
+        }
+    }
+}
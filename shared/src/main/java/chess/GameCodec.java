@@ -0,0 +1,125 @@
+package chess;
+
+/**
+ * Compact binary format for storing a ChessGame. Version 1 is 39 bytes:
+ * <pre>
+ * byte 0       format version
+ * bytes 1-32   one 4-bit nibble per square (square 0 in the low nibble of byte 1): 0 for empty, otherwise
+ *              PieceType ordinal + 1, plus 8 for a black piece
+ * byte 33      bits 0-1: side to move (0 white, 1 black, 2 disabled game), bits 2-5: castling rights K, Q, k, q
+ * byte 34      column (1-8) of the pawn that can be taken via en passant, or 0
+ * bytes 35-36  halfmove clock
+ * bytes 37-38  fullmove number
+ * </pre>
+ * Only the state that affects play is kept, so a decoded game equals the original and has the same legal moves.
+ */
+public class GameCodec {
+    public static final byte VERSION = 1;
+    private static final int LENGTH = 39;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    public static byte[] encode(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        byte[] bytes = new byte[LENGTH];
+        bytes[0] = VERSION;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(Bitboards.toPosition(square));
+            if (piece != null) {
+                int nibble = piece.getPieceType().ordinal() + 1 + (piece.getTeamColor() == ChessGame.TeamColor.BLACK ? 8 : 0);
+                bytes[1 + square / 2] |= (byte) (nibble << (square % 2 * 4));
+            }
+        }
+
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        int state = (turn == null) ? 2 : turn.ordinal();
+        int bit = 2;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (boolean kingside : new boolean[]{true, false}) {
+                if (board.hasCastlingRight(color, kingside)) {
+                    state |= 1 << bit;
+                }
+                bit++;
+            }
+        }
+        bytes[33] = (byte) state;
+        bytes[34] = (byte) ((turn == null) ? 0 : board.enPassantColumn(turn.opponent()));
+        putShort(bytes, 35, game.getHalfmoveClock());
+        putShort(bytes, 37, game.getFullmoveNumber());
+        return bytes;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes aren't a game in a known version of the format
+     */
+    public static ChessGame decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0 || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unknown game format version");
+        }
+        if (bytes.length != LENGTH) {
+            throw new IllegalArgumentException("Game data should be " + LENGTH + " bytes, not " + bytes.length);
+        }
+
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int nibble = (bytes[1 + square / 2] >> (square % 2 * 4)) & 0xF;
+            if (nibble == 0) {
+                continue;
+            }
+            int type = (nibble & 7) - 1;
+            if (type >= TYPES.length) {
+                throw new IllegalArgumentException("Invalid piece code " + nibble + " on square " + square);
+            }
+            ChessGame.TeamColor color = (nibble & 8) == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            ChessPiece piece = new ChessPiece(color, TYPES[type]);
+            piece.setSpecial(false); // Castling and en passant state is restored below
+            board.addPiece(Bitboards.toPosition(square), piece);
+        }
+
+        int state = bytes[33] & 0xFF;
+        int bit = 2;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            int row = (color == ChessGame.TeamColor.WHITE) ? 1 : 8;
+            for (boolean kingside : new boolean[]{true, false}) {
+                if ((state & (1 << bit)) != 0) {
+                    setSpecial(board, ChessPosition.of(row, 5));
+                    setSpecial(board, ChessPosition.of(row, kingside ? 8 : 1));
+                }
+                bit++;
+            }
+        }
+
+        ChessGame.TeamColor turn = switch (state & 3) {
+            case 0 -> ChessGame.TeamColor.WHITE;
+            case 1 -> ChessGame.TeamColor.BLACK;
+            default -> null;
+        };
+        int enPassantColumn = bytes[34];
+        if (turn != null && enPassantColumn >= 1 && enPassantColumn <= 8) {
+            setSpecial(board, ChessPosition.of(turn == ChessGame.TeamColor.WHITE ? 5 : 4, enPassantColumn));
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        game.setClocks(getShort(bytes, 35), getShort(bytes, 37));
+        return game;
+    }
+
+    private static void setSpecial(ChessBoard board, ChessPosition position) {
+        ChessPiece piece = board.getPiece(position);
+        if (piece == null) {
+            throw new IllegalArgumentException("Castling or en passant state without a piece at " + position);
+        }
+        piece.setSpecial(true);
+    }
+
+    private static void putShort(byte[] bytes, int index, int value) {
+        int clamped = Math.min(value, 0xFFFF);
+        bytes[index] = (byte) (clamped >>> 8);
+        bytes[index + 1] = (byte) clamped;
+    }
+
+    private static int getShort(byte[] bytes, int index) {
+        return ((bytes[index] & 0xFF) << 8) | (bytes[index + 1] & 0xFF);
+    }
+}
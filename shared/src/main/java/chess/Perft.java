@@ -0,0 +1,73 @@
+package chess;
+
+import chess.moves.IntMoveList;
+import chess.moves.LegalMoves;
+import chess.moves.PackedMove;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Performance test ("perft") for the move generator: counts every sequence of legal moves to a given depth.
+ * The counts for well-known positions are published, so a mismatch means a move generation bug, and the time
+ * taken is a measure of move generation speed.
+ * <p>
+ * Moves are made and taken back on the game's board, so the game is unchanged when these return.
+ */
+public class Perft {
+
+    /**
+     * @return the number of leaf positions reachable from the game's position in exactly depth moves
+     */
+    public static long perft(ChessGame game, int depth) {
+        return perft(game.getBoard(), game.getTeamTurn(), depth, moveLists(depth));
+    }
+
+    /**
+     * Splits perft up by first move, which narrows a wrong count down to the move it comes from
+     *
+     * @return perft(depth - 1) of the position after each legal move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        IntMoveList[] moveLists = moveLists(depth);
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (ChessMove move : LegalMoves.getMoves(board, turn)) {
+            ChessBoard.UndoInfo undo = board.makeMove(move);
+            counts.put(move, perft(board, turn.opponent(), depth - 1, moveLists));
+            board.unmakeMove(undo);
+        }
+        return counts;
+    }
+
+    /**
+     * One move list per ply, reused for every position searched at that depth
+     */
+    private static IntMoveList[] moveLists(int depth) {
+        IntMoveList[] moveLists = new IntMoveList[Math.max(depth, 0) + 1];
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new IntMoveList();
+        }
+        return moveLists;
+    }
+
+    private static long perft(ChessBoard board, ChessGame.TeamColor turn, int depth, IntMoveList[] moveLists) {
+        if (depth == 0) {
+            return 1;
+        }
+        IntMoveList moves = moveLists[depth];
+        moves.clear();
+        LegalMoves.generate(moves, board, turn, -1L);
+        if (depth == 1) {
+            return moves.size(); // Every legal move is a leaf, so there's no need to make them
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            ChessBoard.UndoInfo undo = board.makeMove(PackedMove.toChessMove(moves.get(i)));
+            nodes += perft(board, turn.opponent(), depth - 1, moveLists);
+            board.unmakeMove(undo);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,55 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. A position's key is the XOR of the keys for each piece on its square,
+ * each remaining castling right, each pawn that can be taken via en passant (by column) and the side to move.
+ * XOR is its own inverse, so moving a piece only needs the two square keys XORed in and out.
+ * <p>
+ * The keys come from a fixed seed so they are the same on every run.
+ */
+public class Zobrist {
+    private static final long SEED = 0x3A7F_2C91_D04B_6E15L;
+    private static final int TYPE_COUNT = ChessPiece.PieceType.values().length;
+
+    private static final long[][] PIECES = new long[TYPE_COUNT * 2][64];
+    private static final long[] CASTLING = new long[4];
+    private static final long[] EN_PASSANT = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] squares : PIECES) {
+            for (int i = 0; i < squares.length; i++) {
+                squares[i] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT.length; i++) {
+            EN_PASSANT[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    public static long piece(ChessGame.TeamColor color, ChessPiece.PieceType type, int square) {
+        return PIECES[color.ordinal() * TYPE_COUNT + type.ordinal()][square];
+    }
+
+    public static long castling(ChessGame.TeamColor color, boolean kingside) {
+        return CASTLING[color.ordinal() * 2 + (kingside ? 1 : 0)];
+    }
+
+    /**
+     * @param column column (1-8) of the pawn that can be taken via en passant
+     */
+    public static long enPassant(int column) {
+        return EN_PASSANT[column - 1];
+    }
+
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+}
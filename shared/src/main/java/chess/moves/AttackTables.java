@@ -0,0 +1,60 @@
+package chess.moves;
+
+import chess.ChessGame;
+
+/*
+ * Precomputed attack sets for the pieces whose moves don't depend on blockers (knights, kings and pawn captures).
+ * Each table is indexed by square (see chess.Bitboards) and holds a bitboard of every square attacked from it.
+ */
+public class AttackTables {
+    private static final int[][] KNIGHT_OFFSETS = {
+            {-1, 2}, {-1, -2}, {1, 2}, {1, -2}, {-2, 1}, {-2, -1}, {2, 1}, {2, -1}
+    };
+    private static final int[][] KING_OFFSETS = {
+            {1, 1}, {1, 0}, {1, -1}, {0, 1}, {0, -1}, {-1, 1}, {-1, 0}, {-1, -1}
+    };
+    private static final int[][] WHITE_PAWN_OFFSETS = {{1, 1}, {1, -1}};
+    private static final int[][] BLACK_PAWN_OFFSETS = {{-1, 1}, {-1, -1}};
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT[square] = fromOffsets(square, KNIGHT_OFFSETS);
+            KING[square] = fromOffsets(square, KING_OFFSETS);
+            PAWN[ChessGame.TeamColor.WHITE.ordinal()][square] = fromOffsets(square, WHITE_PAWN_OFFSETS);
+            PAWN[ChessGame.TeamColor.BLACK.ordinal()][square] = fromOffsets(square, BLACK_PAWN_OFFSETS);
+        }
+    }
+
+    private static long fromOffsets(int square, int[][] offsets) {
+        int row = square >>> 3;
+        int col = square & 7;
+        long attacks = 0;
+        for (int[] offset : offsets) {
+            int r = row + offset[0];
+            int c = col + offset[1];
+            if (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                attacks |= 1L << (r * 8 + c);
+            }
+        }
+        return attacks;
+    }
+
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @return squares a pawn of the given color attacks diagonally from the given square
+     */
+    public static long pawn(ChessGame.TeamColor color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+}
@@ -0,0 +1,63 @@
+package chess.moves;
+
+import chess.ChessMove;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable list of PackedMove ints. Call clear() to reuse the same buffer for the next position.
+ */
+public class IntMoveList {
+    // No legal chess position has more than 218 moves, so the default size never has to grow in a real game
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public IntMoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntMoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, Math.max(8, size * 2));
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Converts every move into its shared ChessMove instance, for callers of the public Collection API
+     */
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> output = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            output.add(PackedMove.toChessMove(moves[i]));
+        }
+        return output;
+    }
+}
@@ -6,46 +6,56 @@ import java.util.*;
 
 public class KingMoves extends MoveCalculations {
     static final Map<ChessGame.TeamColor, Collection<ChessPosition>> ROOK_POS = Map.of(
-            ChessGame.TeamColor.WHITE, List.of(new ChessPosition(1, 1), new ChessPosition(1, 8)),
-            ChessGame.TeamColor.BLACK, List.of(new ChessPosition(8, 1), new ChessPosition(8, 8))
+            ChessGame.TeamColor.WHITE, List.of(ChessPosition.of(1, 1), ChessPosition.of(1, 8)),
+            ChessGame.TeamColor.BLACK, List.of(ChessPosition.of(8, 1), ChessPosition.of(8, 8))
     );
 
     public static List<ChessMove> getMoves(ChessPiece king, ChessBoard board, ChessPosition position) {
-        List<ChessPosition> output = new ArrayList<>();
-        output.addAll(getDiagonals(1, MoveDirection.ALL, board, position, king.getTeamColor()));
-        output.addAll(getStraight(1, MoveDirection.ALL, board, position, king.getTeamColor()));
+        IntMoveList out = new IntMoveList(PIECE_CAPACITY);
+        addMoves(out, board, king, Bitboards.square(position));
+        return out.toChessMoves();
+    }
+
+    public static void addMoves(IntMoveList out, ChessBoard board, ChessPiece king, int square) {
+        Bitboards bitboards = board.getBitboards();
+        ChessGame.TeamColor color = king.getTeamColor();
+        addTargets(out, square, AttackTables.king(square) & ~bitboards.occupancy(color), bitboards.occupancy(color.opponent()));
         if (king.getSpecial()) {
-            output.addAll(getCastle(king, board, position));
+            addCastleMoves(out, king, board, Bitboards.toPosition(square));
         }
-        return ChessMove.positionsToMoves(output, position);
     }
 
     public static ChessPosition getDefaultRookFromKing(ChessPosition kingPos, boolean greaterColumn) {
-        return new ChessPosition(kingPos.getRow(), greaterColumn ? 8 : 1);
+        return ChessPosition.of(kingPos.getRow(), greaterColumn ? 8 : 1);
     }
 
-    private static List<ChessPosition> getCastle(ChessPiece king, ChessBoard board, ChessPosition position) {
-        List<ChessPosition> out = new ArrayList<>();
+    /**
+     * Gets the castling moves available to a king that hasn't moved, without checking if the king would
+     * castle out of, through or into check.
+     */
+    public static void addCastleMoves(IntMoveList out, ChessPiece king, ChessBoard board, ChessPosition position) {
+        int square = Bitboards.square(position);
         for (ChessPosition pos : ROOK_POS.get(king.getTeamColor())) {
             ChessPiece rook = board.getPiece(pos);
-            if (rook != null && rook.getPieceType() == ChessPiece.PieceType.ROOK && rook.getSpecial()) {
+            if (rook != null && rook.getPieceType() == ChessPiece.PieceType.ROOK && rook.getSpecial()
+                    && rook.getTeamColor() == king.getTeamColor() && pos.getRow() == position.getRow()) {
+                // The king moves two squares, so it has to have room to do so on the board
                 if (pos.getColumn() > position.getColumn()) {
-                    if (checkClear(board, position.getRow(), position.getColumn(), pos.getColumn())) {
-                        out.add(position.add(0, 2));
+                    if (position.getColumn() <= 6 && checkClear(board, position.getRow(), position.getColumn(), pos.getColumn())) {
+                        out.add(PackedMove.encode(square, square + 2, PackedMove.CASTLE));
                     }
                 } else {
-                    if (checkClear(board, position.getRow(), pos.getColumn(), position.getColumn())) {
-                        out.add(position.add(0, -2));
+                    if (position.getColumn() >= 3 && checkClear(board, position.getRow(), pos.getColumn(), position.getColumn())) {
+                        out.add(PackedMove.encode(square, square - 2, PackedMove.CASTLE));
                     }
                 }
             }
         }
-        return out;
     }
 
     private static boolean checkClear(ChessBoard board, int row, int startCol, int endCol) {
         for (int i = startCol + 1; i < endCol; i++) {
-            if (board.getPiece(new ChessPosition(row, i)) != null) {
+            if (board.getPiece(ChessPosition.of(row, i)) != null) {
                 return false;
             }
         }
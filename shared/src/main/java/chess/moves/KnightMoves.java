@@ -1,16 +1,19 @@
 package chess.moves;
 
-import chess.ChessBoard;
-import chess.ChessMove;
-import chess.ChessPiece;
-import chess.ChessPosition;
+import chess.*;
 
 import java.util.List;
 
 public class KnightMoves extends MoveCalculations {
-    public static List<ChessMove> getMoves(ChessPiece bishop, ChessBoard board, ChessPosition position) {
-        return ChessMove.positionsToMoves(
-                getLs(1, board, position, bishop.getTeamColor()),
-                position);
+    public static List<ChessMove> getMoves(ChessPiece knight, ChessBoard board, ChessPosition position) {
+        IntMoveList out = new IntMoveList(PIECE_CAPACITY);
+        addMoves(out, board, knight.getTeamColor(), Bitboards.square(position));
+        return out.toChessMoves();
+    }
+
+    public static void addMoves(IntMoveList out, ChessBoard board, ChessGame.TeamColor color, int square) {
+        Bitboards bitboards = board.getBitboards();
+        long attacks = AttackTables.knight(square);
+        addTargets(out, square, attacks & ~bitboards.occupancy(color), bitboards.occupancy(color.opponent()));
     }
 }
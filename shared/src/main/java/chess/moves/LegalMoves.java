@@ -0,0 +1,157 @@
+package chess.moves;
+
+import chess.*;
+
+import java.util.List;
+
+/*
+ * Generates only the legal moves for a team. The pieces giving check and the pieces pinned to their own king are
+ * worked out once per position, and every piece's targets are masked with them instead of trying each move on the board.
+ * En passant is the one exception: it removes two pieces from a row at once, so it is tried with makeMove/unmakeMove.
+ * Moves are generated as PackedMove ints; getMoves converts them for callers that want ChessMove objects.
+ */
+public class LegalMoves extends MoveCalculations {
+
+    public static List<ChessMove> getMoves(ChessBoard board, ChessGame.TeamColor color) {
+        return getMoves(board, color, -1L);
+    }
+
+    /**
+     * @param fromSquares bitboard of the squares to generate moves from (e.g. a single piece's square)
+     */
+    public static List<ChessMove> getMoves(ChessBoard board, ChessGame.TeamColor color, long fromSquares) {
+        IntMoveList moves = new IntMoveList();
+        generate(moves, board, color, fromSquares);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Adds the team's legal moves from the given squares to a move list as PackedMove ints
+     *
+     * @param fromSquares bitboard of the squares to generate moves from, or -1 for every square
+     */
+    public static void generate(IntMoveList out, ChessBoard board, ChessGame.TeamColor color, long fromSquares) {
+        Bitboards bitboards = board.getBitboards();
+        ChessGame.TeamColor enemy = color.opponent();
+        long ownPieces = bitboards.occupancy(color);
+        long enemyPieces = bitboards.occupancy(enemy);
+        long occupancy = bitboards.occupancy();
+
+        // Out of check, a piece may move anywhere. In check, it has to take the checker or block it.
+        // Without a king nothing can be illegal, so every move the pieces can make is valid.
+        long checkMask = -1L;
+        long pinned = 0;
+        int kingSquare = bitboards.kingSquare(color);
+        if (kingSquare >= 0) {
+            long checkers = bitboards.attackersOf(kingSquare, enemy, occupancy);
+            if ((fromSquares & Bitboards.bit(kingSquare)) != 0) {
+                addKingMoves(out, board, kingSquare, checkers);
+            }
+            if (Long.bitCount(checkers) > 1) {
+                return; // Only the king can get out of a double check
+            }
+            if (checkers != 0) {
+                checkMask = checkers | SlidingAttacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+            }
+            pinned = pinnedPieces(bitboards, color, kingSquare);
+        }
+
+        long pieces = ownPieces & ~bitboards.pieces(color, ChessPiece.PieceType.KING) & fromSquares;
+        for (; pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            ChessPiece piece = board.getPiece(Bitboards.toPosition(square));
+            long targets = switch (piece.getPieceType()) {
+                case PAWN -> (AttackTables.pawn(color, square) & enemyPieces)
+                        | PawnMoves.pushTargets(color, square, occupancy);
+                case KNIGHT -> AttackTables.knight(square);
+                case BISHOP -> SlidingAttacks.bishop(square, occupancy);
+                case ROOK -> SlidingAttacks.rook(square, occupancy);
+                case QUEEN -> SlidingAttacks.queen(square, occupancy);
+                case KING -> 0;
+            };
+            targets &= ~ownPieces & checkMask;
+            if ((pinned & Bitboards.bit(square)) != 0) {
+                // A pinned piece can only slide along the line between its king and the pinning piece
+                targets &= SlidingAttacks.line(kingSquare, square);
+            }
+
+            if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+                PawnMoves.addWithPromotion(out, square, targets, enemyPieces);
+                addEnPassantMoves(out, board, color, square, kingSquare);
+            } else {
+                addTargets(out, square, targets, enemyPieces);
+            }
+        }
+    }
+
+    private static void addKingMoves(IntMoveList out, ChessBoard board, int kingSquare, long checkers) {
+        Bitboards bitboards = board.getBitboards();
+        ChessPosition kingPos = Bitboards.toPosition(kingSquare);
+        ChessPiece king = board.getPiece(kingPos);
+        ChessGame.TeamColor enemy = king.getTeamColor().opponent();
+        long enemyPieces = bitboards.occupancy(enemy);
+
+        // The king is taken off the board so it can't block a sliding piece from attacking the square behind it
+        long occupancy = bitboards.occupancy() & ~Bitboards.bit(kingSquare);
+        long targets = AttackTables.king(kingSquare) & ~bitboards.occupancy(king.getTeamColor());
+        for (; targets != 0; targets &= targets - 1) {
+            int target = Long.numberOfTrailingZeros(targets);
+            if (!bitboards.isSquareAttacked(target, enemy, occupancy)) {
+                out.add(PackedMove.encode(kingSquare, target, (enemyPieces & Bitboards.bit(target)) != 0 ? PackedMove.CAPTURE : 0));
+            }
+        }
+
+        if (checkers != 0 || !king.getSpecial()) {
+            return; // A king can't castle out of check
+        }
+        IntMoveList castles = new IntMoveList(2);
+        KingMoves.addCastleMoves(castles, king, board, kingPos);
+        for (int i = 0; i < castles.size(); i++) {
+            int end = PackedMove.to(castles.get(i));
+            int middle = (kingSquare + end) / 2;
+            if (!bitboards.isSquareAttacked(middle, enemy) && !bitboards.isSquareAttacked(end, enemy)) {
+                out.add(castles.get(i));
+            }
+        }
+    }
+
+    /**
+     * Finds the team's pieces that are the only thing between their king and an enemy rook, bishop or queen
+     */
+    private static long pinnedPieces(Bitboards bitboards, ChessGame.TeamColor color, int kingSquare) {
+        ChessGame.TeamColor enemy = color.opponent();
+        long enemyPieces = bitboards.occupancy(enemy);
+        long queens = bitboards.pieces(enemy, ChessPiece.PieceType.QUEEN);
+        // Enemy sliders that would attack the king if none of the team's own pieces were in the way
+        long snipers = (SlidingAttacks.rook(kingSquare, enemyPieces) & (bitboards.pieces(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (SlidingAttacks.bishop(kingSquare, enemyPieces) & (bitboards.pieces(enemy, ChessPiece.PieceType.BISHOP) | queens));
+
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = SlidingAttacks.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & bitboards.occupancy();
+            if (Long.bitCount(blockers) == 1 && (blockers & bitboards.occupancy(color)) != 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * @param kingSquare the team's king, or -1 if it has none and the capture can't expose anything
+     */
+    private static void addEnPassantMoves(IntMoveList out, ChessBoard board, ChessGame.TeamColor color, int square, int kingSquare) {
+        long targets = PawnMoves.enPassantTargets(board, color, square);
+        for (; targets != 0; targets &= targets - 1) {
+            int move = PackedMove.encode(square, Long.numberOfTrailingZeros(targets), PackedMove.CAPTURE | PackedMove.EN_PASSANT);
+            if (kingSquare >= 0) {
+                ChessBoard.UndoInfo undo = board.makeMove(PackedMove.toChessMove(move));
+                boolean inCheck = board.getBitboards().isSquareAttacked(kingSquare, color.opponent());
+                board.unmakeMove(undo);
+                if (inCheck) {
+                    continue;
+                }
+            }
+            out.add(move);
+        }
+    }
+}
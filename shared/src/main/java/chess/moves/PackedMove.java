@@ -0,0 +1,68 @@
+package chess.moves;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+
+/**
+ * Encodes a move in a single int so move generation can fill an IntMoveList without creating objects.
+ * <pre>
+ * bits 0-5   start square (Bitboards square index)
+ * bits 6-11  end square
+ * bits 12-14 promotion piece: 0 for none, otherwise PieceType ordinal + 1
+ * bit 15     capture (including en passant)
+ * bit 16     castle
+ * bit 17     en passant
+ * </pre>
+ * The low 16 bits are enough to tell two moves apart; the flags only describe the move.
+ */
+public class PackedMove {
+    public static final int CAPTURE = 1 << 15;
+    public static final int CASTLE = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promotionBits = (promotion == null) ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (promotionBits << 12) | flags;
+    }
+
+    public static int encode(int from, int to, int flags) {
+        return from | (to << 6) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the piece a pawn promotes to, or null if the move isn't a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotionBits = (move >>> 12) & 7;
+        return (promotionBits == 0) ? null : TYPES[promotionBits - 1];
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    /**
+     * @return the shared ChessMove instance for a packed move
+     */
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(from(move), to(move), promotion(move));
+    }
+}
@@ -2,7 +2,6 @@ package chess.moves;
 
 import chess.*;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class PawnMoves extends MoveCalculations {
@@ -14,50 +13,72 @@ public class PawnMoves extends MoveCalculations {
     };
 
     public static List<ChessMove> getMoves(ChessPiece pawn, ChessBoard board, ChessPosition position) {
-        List<ChessMove> output = new ArrayList<>();
-        var moveDirection = (pawn.getTeamColor() == ChessGame.TeamColor.WHITE)
-                ? MoveDirection.UP
-                : MoveDirection.DOWN;
-
-        List<ChessPosition> diagonalMoves = getDiagonals(1, moveDirection, board, position, pawn.getTeamColor());
-        for (ChessPosition move : diagonalMoves) {
-            var piece = board.getPiece(move);
-            if (piece != null) { // No piece returns means that it isn't taking, therefore it's an invalid pawn move
-                addWithPromotion(output, move, position);
-            } else if (checkEnPassant(board, move, position)) {
-                output.add(new ChessMove(position, move, null));
-            }
+        IntMoveList out = new IntMoveList(PIECE_CAPACITY);
+        addMoves(out, board, pawn.getTeamColor(), Bitboards.square(position));
+        return out.toChessMoves();
+    }
+
+    public static void addMoves(IntMoveList out, ChessBoard board, ChessGame.TeamColor color, int square) {
+        Bitboards bitboards = board.getBitboards();
+        long enemies = bitboards.occupancy(color.opponent());
+        long captures = AttackTables.pawn(color, square) & enemies;
+        addWithPromotion(out, square, captures | pushTargets(color, square, bitboards.occupancy()), enemies);
+        for (long targets = enPassantTargets(board, color, square); targets != 0; targets &= targets - 1) {
+            out.add(PackedMove.encode(square, Long.numberOfTrailingZeros(targets), PackedMove.CAPTURE | PackedMove.EN_PASSANT));
         }
+    }
 
-        int straightLength = 1;
-        // Check for a double move. This can be determined from position since pawns moving the other direction hit the end of the board.
-        if (position.getRow() == 2 || position.getRow() == 7) {
-            straightLength = 2;
+    /**
+     * Squares a pawn can move straight to: one step forward, or two from its starting row. Pawns can't take moving
+     * straight, so any piece in the way blocks the move.
+     */
+    public static long pushTargets(ChessGame.TeamColor color, int square, long occupancy) {
+        int direction = (color == ChessGame.TeamColor.WHITE) ? 8 : -8;
+        int next = square + direction;
+        if (next < 0 || next > 63 || (occupancy & Bitboards.bit(next)) != 0) {
+            return 0;
         }
-        List<ChessPosition> straightMoves = getStraight(straightLength, moveDirection, board, position, pawn.getTeamColor());
-        for (ChessPosition move : straightMoves) {
-            var piece = board.getPiece(move);
-            if (piece == null) { // If there's a piece, the pawn is trying to take illegally
-                addWithPromotion(output, move, position);
-            }
+        // Check for a double move. Only a pawn on its own starting row can make one.
+        int startRow = (color == ChessGame.TeamColor.WHITE) ? 2 : 7;
+        int jump = next + direction;
+        if (Bitboards.row(square) == startRow && (occupancy & Bitboards.bit(jump)) == 0) {
+            return Bitboards.bit(next) | Bitboards.bit(jump);
         }
-
-        return output;
+        return Bitboards.bit(next);
     }
 
-    private static void addWithPromotion(List<ChessMove> out, ChessPosition move, ChessPosition position) {
-        if (move.getRow() == 8 || move.getRow() == 1) { //Pawns can't get into the promotion zone on their own side
-            for (ChessPiece.PieceType promotion : possiblePromotions) {
-                out.add(new ChessMove(position, move, promotion));
+    /**
+     * Empty squares a pawn can move to diagonally by taking an opponent's pawn that just double moved past it
+     */
+    public static long enPassantTargets(ChessBoard board, ChessGame.TeamColor color, int square) {
+        long targets = 0;
+        long empty = AttackTables.pawn(color, square) & ~board.getBitboards().occupancy();
+        for (; empty != 0; empty &= empty - 1) {
+            int target = Long.numberOfTrailingZeros(empty);
+            ChessPiece piece = board.getPiece(ChessPosition.of(Bitboards.row(square), Bitboards.column(target)));
+            if (piece != null && piece.getPieceType() == ChessPiece.PieceType.PAWN
+                    && piece.getTeamColor() != color && piece.getSpecial()) {
+                targets |= Bitboards.bit(target);
             }
-        } else {
-            out.add(new ChessMove(position, move, null));
         }
+        return targets;
     }
 
-    private static boolean checkEnPassant(ChessBoard board, ChessPosition move, ChessPosition position) {
-        ChessPosition enPassantPos = new ChessPosition(position.getRow(), move.getColumn());
-        ChessPiece piece = board.getPiece(enPassantPos);
-        return piece != null && piece.getPieceType() == ChessPiece.PieceType.PAWN && piece.getSpecial();
+    /**
+     * Adds a move to each target square, with one move per promotion piece when the target is on the last row
+     */
+    public static void addWithPromotion(IntMoveList out, int from, long targets, long enemies) {
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int flags = (enemies & Bitboards.bit(to)) != 0 ? PackedMove.CAPTURE : 0;
+            int row = Bitboards.row(to);
+            if (row == 8 || row == 1) { //Pawns can't get into the promotion zone on their own side
+                for (ChessPiece.PieceType promotion : possiblePromotions) {
+                    out.add(PackedMove.encode(from, to, promotion, flags));
+                }
+            } else {
+                out.add(PackedMove.encode(from, to, flags));
+            }
+        }
     }
 }
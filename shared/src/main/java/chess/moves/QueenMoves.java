@@ -1,18 +1,19 @@
 package chess.moves;
 
-import chess.ChessBoard;
-import chess.ChessMove;
-import chess.ChessPiece;
-import chess.ChessPosition;
+import chess.*;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class QueenMoves extends MoveCalculations {
-    public static List<ChessMove> getMoves(ChessPiece king, ChessBoard board, ChessPosition position) {
-        List<ChessPosition> output = new ArrayList<>();
-        output.addAll(getDiagonals(7, MoveDirection.ALL, board, position, king.getTeamColor()));
-        output.addAll(getStraight(7, MoveDirection.ALL, board, position, king.getTeamColor()));
-        return ChessMove.positionsToMoves(output, position);
+    public static List<ChessMove> getMoves(ChessPiece queen, ChessBoard board, ChessPosition position) {
+        IntMoveList out = new IntMoveList(PIECE_CAPACITY);
+        addMoves(out, board, queen.getTeamColor(), Bitboards.square(position));
+        return out.toChessMoves();
+    }
+
+    public static void addMoves(IntMoveList out, ChessBoard board, ChessGame.TeamColor color, int square) {
+        Bitboards bitboards = board.getBitboards();
+        long attacks = SlidingAttacks.queen(square, bitboards.occupancy());
+        addTargets(out, square, attacks & ~bitboards.occupancy(color), bitboards.occupancy(color.opponent()));
     }
 }
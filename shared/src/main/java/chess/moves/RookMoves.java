@@ -1,16 +1,19 @@
 package chess.moves;
 
-import chess.ChessBoard;
-import chess.ChessMove;
-import chess.ChessPiece;
-import chess.ChessPosition;
+import chess.*;
 
 import java.util.List;
 
 public class RookMoves extends MoveCalculations {
     public static List<ChessMove> getMoves(ChessPiece rook, ChessBoard board, ChessPosition position) {
-        return ChessMove.positionsToMoves(
-                getStraight(7, MoveDirection.ALL, board, position, rook.getTeamColor()),
-                position);
+        IntMoveList out = new IntMoveList(PIECE_CAPACITY);
+        addMoves(out, board, rook.getTeamColor(), Bitboards.square(position));
+        return out.toChessMoves();
+    }
+
+    public static void addMoves(IntMoveList out, ChessBoard board, ChessGame.TeamColor color, int square) {
+        Bitboards bitboards = board.getBitboards();
+        long attacks = SlidingAttacks.rook(square, bitboards.occupancy());
+        addTargets(out, square, attacks & ~bitboards.occupancy(color), bitboards.occupancy(color.opponent()));
     }
 }
@@ -0,0 +1,181 @@
+package chess.moves;
+
+/*
+ * Magic bitboard lookup tables for sliding pieces (rooks, bishops, and queens as both).
+ * For every square, the occupancy bits on that square's rays are hashed with a "magic" multiplier into an index of a
+ * table holding the precomputed attack set for that blocker arrangement, so a lookup is a mask, a multiply and a shift.
+ * The magic multipliers were found ahead of time by random search; the attack tables are filled in once at class load.
+ */
+public class SlidingAttacks {
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final long[] ROOK_MAGICS = {
+            0x1080002080400010L, 0x54C0004290006004L, 0x0A00084020801200L, 0x0200100408220040L,
+            0xC080040002800801L, 0x0300040028010082L, 0x8880010002004080L, 0x4100002480410012L,
+            0x0004800028804001L, 0x0000400020100041L, 0x0010802000100083L, 0x8182002200084010L,
+            0x8005000802110004L, 0x2260808002000400L, 0x0118800100020080L, 0x0002000401248052L,
+            0x0109010020488000L, 0x8001050040008020L, 0x0060014030080040L, 0x0C08008008100480L,
+            0x0002020020041008L, 0x8100818014000200L, 0x0000040012180150L, 0x28800A0002841143L,
+            0x8C00400080008032L, 0x0100200040005004L, 0x0000100080802000L, 0x12D0000900210010L,
+            0x1100080080800400L, 0x0C2A000A00103C08L, 0x0080D00400020128L, 0x8029000100108052L,
+            0xA04000408080002CL, 0x0042400082802010L, 0x0400801000802004L, 0x0081800802801000L,
+            0x0010800402800801L, 0x400C020080800400L, 0x0000080204000110L, 0x210105204200019CL,
+            0x0000400080208008L, 0x8200400083050024L, 0x2180804012020023L, 0x0108090010010020L,
+            0x0008000402004040L, 0x0001000400030008L, 0x0001080210040001L, 0x00050102A8460004L,
+            0x0840400080083080L, 0x1000E00840100540L, 0x08A300B020004300L, 0x2334080080100080L,
+            0x0000080004008080L, 0x8113000802040100L, 0x0000800100020080L, 0x9000010054009200L,
+            0x1800810015E20042L, 0x4000201900400081L, 0x0005082000114101L, 0x04042100D0000409L,
+            0x0002001085200802L, 0x8301000802040001L, 0x4024021000A14804L, 0x0080084080210406L
+    };
+    private static final long[] BISHOP_MAGICS = {
+            0x8040290602004108L, 0x2020C42092004006L, 0x0004442400480000L, 0x00580A1220815000L,
+            0x0004030811080800L, 0x000202100420000CL, 0x0021881808240000L, 0x2802004914012000L,
+            0x000020E002020844L, 0x8A20020252021E00L, 0x08220800B4008815L, 0x04060404008E1842L,
+            0x9800440422020202L, 0x0000110442400001L, 0x080104023824040CL, 0x8400020201610804L,
+            0x4004602048104108L, 0x001000040408404DL, 0x0028808408021100L, 0x120800040A404880L,
+            0x4808200402082002L, 0x0001800101600600L, 0x200100008C01A004L, 0x8178200049141004L,
+            0x4111040210208212L, 0x4830B00004044082L, 0x1800300048004140L, 0x200108005C004190L,
+            0x0050040003802100L, 0x0008088021300402L, 0x0218020415014140L, 0x0254050400844108L,
+            0x1411900800405840L, 0x02A1102A80888829L, 0x4601280801040422L, 0x00062008001101D0L,
+            0x0808010040100802L, 0x0C10004201404100L, 0x80084109250C0081L, 0x0100820848420100L,
+            0x00C0841108084002L, 0x0800480208041004L, 0x0024A0140A009001L, 0x8040034208008080L,
+            0x0040400109088200L, 0x1040149080808104L, 0x0060548492003080L, 0x0208280508400022L,
+            0x00C0820820848200L, 0x9010840108822040L, 0x8010402402482000L, 0x101214A020881080L,
+            0x051002D0E0220202L, 0x0000102001610001L, 0x2010A00810808008L, 0xA002080141020002L,
+            0x6020138088201040L, 0x0000A10082100200L, 0x0010000104010400L, 0x0020000020411084L,
+            0x0200080820204110L, 0x0002441011302320L, 0x0100100408080050L, 0x1010B00080848A00L
+    };
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final long[][] ROOK_ATTACKS = new long[64][];
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] BISHOP_ATTACKS = new long[64][];
+
+    // Squares strictly between, and the full line through, two squares on a shared rank, file or diagonal
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            initSquare(square, ROOK_DIRECTIONS, ROOK_MAGICS[square], ROOK_MASKS, ROOK_SHIFTS, ROOK_ATTACKS);
+            initSquare(square, BISHOP_DIRECTIONS, BISHOP_MAGICS[square], BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_ATTACKS);
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long bitA = 1L << a;
+                long bitB = 1L << b;
+                if (a != b && (rook(a, 0) & bitB) != 0) {
+                    BETWEEN[a][b] = rook(a, bitB) & rook(b, bitA);
+                    LINE[a][b] = (rook(a, 0) & rook(b, 0)) | bitA | bitB;
+                } else if (a != b && (bishop(a, 0) & bitB) != 0) {
+                    BETWEEN[a][b] = bishop(a, bitB) & bishop(b, bitA);
+                    LINE[a][b] = (bishop(a, 0) & bishop(b, 0)) | bitA | bitB;
+                }
+            }
+        }
+    }
+
+    public static long rook(int square, long occupancy) {
+        long blockers = occupancy & ROOK_MASKS[square];
+        return ROOK_ATTACKS[square][(int) ((blockers * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    public static long bishop(int square, long occupancy) {
+        long blockers = occupancy & BISHOP_MASKS[square];
+        return BISHOP_ATTACKS[square][(int) ((blockers * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    public static long queen(int square, long occupancy) {
+        return rook(square, occupancy) | bishop(square, occupancy);
+    }
+
+    /**
+     * @return squares strictly between a and b, or 0 if they don't share a rank, file or diagonal
+     */
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return every square on the rank, file or diagonal through a and b (including both), or 0 if there isn't one
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    private static void initSquare(
+            int square,
+            int[][] directions,
+            long magic,
+            long[] masks,
+            int[] shifts,
+            long[][] attacks
+    ) {
+        long mask = relevantBlockers(square, directions);
+        int bits = Long.bitCount(mask);
+        long[] table = new long[1 << bits];
+        boolean[] used = new boolean[table.length];
+
+        // Enumerate every blocker subset of the mask (carry-rippler trick) and store its attack set
+        long subset = 0;
+        do {
+            int index = (int) ((subset * magic) >>> (64 - bits));
+            long subsetAttacks = slowAttacks(square, subset, directions);
+            if (used[index] && table[index] != subsetAttacks) {
+                // Two blocker sets may only share an index if they have the same attacks
+                throw new IllegalStateException("Bad magic for square " + square);
+            }
+            used[index] = true;
+            table[index] = subsetAttacks;
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+
+        masks[square] = mask;
+        shifts[square] = 64 - bits;
+        attacks[square] = table;
+    }
+
+    /**
+     * Squares whose occupancy can change the attacks from a square. The last square of each ray is left out, since a
+     * piece there never blocks anything further along.
+     */
+    private static long relevantBlockers(int square, int[][] directions) {
+        long mask = 0;
+        for (int[] direction : directions) {
+            int r = (square >>> 3) + direction[0];
+            int c = (square & 7) + direction[1];
+            while (onBoard(r + direction[0], c + direction[1])) {
+                mask |= 1L << (r * 8 + c);
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long slowAttacks(int square, long occupancy, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int r = (square >>> 3) + direction[0];
+            int c = (square & 7) + direction[1];
+            while (onBoard(r, c)) {
+                long bit = 1L << (r * 8 + c);
+                attacks |= bit;
+                if ((occupancy & bit) != 0) {
+                    break;
+                }
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+}
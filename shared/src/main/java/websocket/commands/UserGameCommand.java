@@ -20,6 +20,9 @@ public class UserGameCommand {
 
     private ChessMove move = null;
 
+    // Only read on CONNECT
+    private boolean moveDeltas = false;
+
     public UserGameCommand(CommandType commandType, String authToken, Integer gameID, ChessMove chessMove) {
         this(commandType, authToken, gameID);
         if (commandType != CommandType.MAKE_MOVE) {
@@ -38,7 +41,9 @@ public class UserGameCommand {
         CONNECT,
         MAKE_MOVE,
         LEAVE,
-        RESIGN
+        RESIGN,
+        /** Asks for the whole game again, for a client that missed a MOVE_APPLIED message */
+        RESYNC
     }
 
     public CommandType getCommandType() {
@@ -54,6 +59,17 @@ public class UserGameCommand {
     }
 
     public ChessMove getMove() { return move; }
+
+    /**
+     * @return whether the client wants MOVE_APPLIED messages in place of a LOAD_GAME after every move
+     */
+    public boolean acceptsMoveDeltas() { return moveDeltas; }
+
+    public UserGameCommand withMoveDeltas() {
+        moveDeltas = true;
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
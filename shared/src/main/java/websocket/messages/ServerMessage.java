@@ -1,6 +1,7 @@
 package websocket.messages;
 
 import chess.ChessGame;
+import chess.ChessMove;
 
 import java.util.Objects;
 
@@ -15,11 +16,16 @@ public class ServerMessage {
     String message;
     String errorMessage;
     ChessGame game;
+    ChessMove move;
+    Integer sequence;
+    ChessGame.GameStatus status;
 
     public enum ServerMessageType {
         LOAD_GAME,
         ERROR,
-        NOTIFICATION
+        NOTIFICATION,
+        /** A move made in the game, sent in place of LOAD_GAME to clients that asked for it when connecting */
+        MOVE_APPLIED
     }
 
     public ServerMessage(ServerMessageType type, String message) {
@@ -35,12 +41,35 @@ public class ServerMessage {
         this.game = game;
     }
 
+    /**
+     * A LOAD_GAME message that also says how many moves the game has had, so MOVE_APPLIED messages can follow it
+     */
+    public ServerMessage(ChessGame game, int sequence) {
+        this(ServerMessageType.LOAD_GAME, game);
+        this.sequence = sequence;
+    }
+
+    /**
+     * A MOVE_APPLIED message
+     * @param sequence how many moves the game has had, including this one
+     * @param status the status of the team to move next, after this move
+     */
+    public ServerMessage(ChessMove move, int sequence, ChessGame.GameStatus status) {
+        this.serverMessageType = ServerMessageType.MOVE_APPLIED;
+        this.move = move;
+        this.sequence = sequence;
+        this.status = status;
+    }
+
     public ServerMessageType getServerMessageType() {
         return this.serverMessageType;
     }
     public String getMessage() { return message; }
     public ChessGame getGame() { return game; }
     public String getErrorMessage() { return  errorMessage; }
+    public ChessMove getMove() { return move; }
+    public Integer getSequence() { return sequence; }
+    public ChessGame.GameStatus getStatus() { return status; }
 
     @Override
     public boolean equals(Object o) {
@@ -52,11 +81,14 @@ public class ServerMessage {
         }
         return getServerMessageType() == that.getServerMessageType() &&
                 Objects.equals(getMessage(), that.getMessage()) &&
-                Objects.equals(getGame(), that.getGame());
+                Objects.equals(getGame(), that.getGame()) &&
+                Objects.equals(getMove(), that.getMove()) &&
+                Objects.equals(getSequence(), that.getSequence()) &&
+                getStatus() == that.getStatus();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getServerMessageType(), getMessage(), getGame());
+        return Objects.hash(getServerMessageType(), getMessage(), getGame(), getMove(), getSequence(), getStatus());
     }
 }
@@ -0,0 +1,50 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ChessGameTest {
+    @Test
+    public void transpositionsHaveTheSameKey() throws InvalidMoveException {
+        ChessGame direct = new ChessGame();
+        direct.makeMove(move(2, 5, 4, 5));
+        direct.makeMove(move(8, 7, 6, 6));
+
+        // The same position, after white's e4 pawn has lost its en passant flag
+        ChessGame transposed = new ChessGame();
+        transposed.makeMove(move(2, 5, 4, 5));
+        transposed.makeMove(move(8, 7, 6, 6));
+        transposed.makeMove(move(1, 7, 3, 6));
+        transposed.makeMove(move(6, 6, 8, 7));
+        transposed.makeMove(move(3, 6, 1, 7));
+        transposed.makeMove(move(8, 7, 6, 6));
+
+        Assertions.assertEquals(direct.zobristKey(), transposed.zobristKey());
+    }
+
+    @Test
+    public void enPassantChangesTheKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+
+        var withEnPassant = ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        var withoutEnPassant = ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+        Assertions.assertEquals(withEnPassant.zobristKey(), game.zobristKey());
+        Assertions.assertNotEquals(withoutEnPassant.zobristKey(), game.zobristKey());
+    }
+
+    @Test
+    public void ply() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(0, game.getPly());
+        game.makeMove(move(2, 5, 4, 5));
+        Assertions.assertEquals(1, game.getPly());
+        game.makeMove(move(7, 5, 5, 5));
+        Assertions.assertEquals(2, game.getPly());
+        Assertions.assertEquals(79, ChessGame.fromFen("4k3/8/8/8/3Pp3/8/8/4K3 b - d3 0 40").getPly());
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}
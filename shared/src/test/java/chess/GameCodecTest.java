@@ -0,0 +1,42 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GameCodecTest {
+    @Test
+    public void roundTrip() {
+        String[] positions = {
+                Fen.STARTING_POSITION,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+                "4k3/8/8/8/3Pp3/8/8/4K3 b - d3 12 40",
+        };
+        for (String fen : positions) {
+            ChessGame game = ChessGame.fromFen(fen);
+            ChessGame decoded = GameCodec.decode(GameCodec.encode(game));
+            Assertions.assertEquals(fen, decoded.toFen());
+            Assertions.assertEquals(game, decoded);
+            Assertions.assertEquals(game.zobristKey(), decoded.zobristKey());
+        }
+    }
+
+    @Test
+    public void disabledGame() {
+        ChessGame game = new ChessGame();
+        game.disableGame();
+        ChessGame decoded = GameCodec.decode(GameCodec.encode(game));
+        Assertions.assertTrue(decoded.isDisabled());
+        Assertions.assertEquals(game.getBoard(), decoded.getBoard());
+    }
+
+    @Test
+    public void rejectsUnknownData() {
+        byte[] bytes = GameCodec.encode(new ChessGame());
+        bytes[0] = 99;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(bytes));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[]{GameCodec.VERSION, 0}));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[0]));
+    }
+}
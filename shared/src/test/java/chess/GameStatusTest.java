@@ -0,0 +1,46 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GameStatusTest {
+    @Test
+    public void statusFollowsTheGame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus(ChessGame.TeamColor.WHITE));
+
+        // Fool's mate
+        game.makeMove(move(2, 6, 3, 6));
+        game.makeMove(move(7, 5, 5, 5));
+        game.makeMove(move(2, 7, 4, 7));
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus(ChessGame.TeamColor.BLACK));
+        game.makeMove(move(8, 4, 4, 8));
+
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getStatus(ChessGame.TeamColor.WHITE));
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        Assertions.assertTrue(game.isInCheck(ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(game.isInStalemate(ChessGame.TeamColor.WHITE));
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    public void statusUpdatesWhenTheBoardIsChangedDirectly() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus(ChessGame.TeamColor.BLACK));
+
+        // A knight checking the black king from d6 without going through makeMove
+        game.getBoard().addPiece(new ChessPosition(6, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK, game.getStatus(ChessGame.TeamColor.BLACK));
+
+        ChessBoard stalemate = new ChessBoard();
+        stalemate.addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        stalemate.addPiece(new ChessPosition(6, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        stalemate.addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        game.setBoard(stalemate);
+        Assertions.assertEquals(ChessGame.GameStatus.STALEMATE, game.getStatus(ChessGame.TeamColor.BLACK));
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}
@@ -0,0 +1,58 @@
+package chess;
+
+import chess.moves.IntMoveList;
+import chess.moves.LegalMoves;
+import chess.moves.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static passoff.chess.TestUtilities.loadBoard;
+
+public class PackedMoveTest {
+    @Test
+    public void encodeAndDecode() {
+        int move = PackedMove.encode(Bitboards.square(7, 2), Bitboards.square(8, 1), ChessPiece.PieceType.KNIGHT, PackedMove.CAPTURE);
+        Assertions.assertEquals(Bitboards.square(7, 2), PackedMove.from(move));
+        Assertions.assertEquals(Bitboards.square(8, 1), PackedMove.to(move));
+        Assertions.assertEquals(ChessPiece.PieceType.KNIGHT, PackedMove.promotion(move));
+        Assertions.assertTrue(PackedMove.isCapture(move));
+        Assertions.assertFalse(PackedMove.isCastle(move));
+        Assertions.assertFalse(PackedMove.isEnPassant(move));
+        Assertions.assertEquals(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 1), ChessPiece.PieceType.KNIGHT),
+                PackedMove.toChessMove(move));
+
+        int quiet = PackedMove.encode(0, 63, 0);
+        Assertions.assertNull(PackedMove.promotion(quiet));
+        Assertions.assertFalse(PackedMove.isCapture(quiet));
+    }
+
+    @Test
+    public void generatorFlagsMoves() {
+        ChessBoard board = loadBoard("""
+                |r| | | |k| | |r|
+                |p| |p|p|q|p|b| |
+                |b|n| | |p|n|p| |
+                | | | |P|N| | | |
+                | |p| | |P| | | |
+                | | |N| | |Q| |p|
+                |P|P|P|B|B|P|P|P|
+                |R| | | |K| | |R|
+                """);
+        IntMoveList moves = new IntMoveList(4); // Small on purpose so the list has to grow
+        LegalMoves.generate(moves, board, ChessGame.TeamColor.WHITE, -1L);
+
+        int captures = 0;
+        int castles = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            captures += PackedMove.isCapture(moves.get(i)) ? 1 : 0;
+            castles += PackedMove.isCastle(moves.get(i)) ? 1 : 0;
+        }
+        Assertions.assertEquals(48, moves.size());
+        Assertions.assertEquals(8, captures);
+        Assertions.assertEquals(2, castles);
+        Assertions.assertEquals(LegalMoves.getMoves(board, ChessGame.TeamColor.WHITE), moves.toChessMoves());
+
+        moves.clear();
+        Assertions.assertTrue(moves.isEmpty());
+    }
+}
@@ -0,0 +1,88 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+/**
+ * Checks the move generator against the published perft counts for the standard test positions
+ * (https://www.chessprogramming.org/Perft_Results).
+ * <p>
+ * By default only the depths with at most perft.maxNodes (5,000,000) leaves are run so the build stays quick.
+ * Run with -Dperft.maxNodes=200000000 to go through every depth, and with -Dperft.timing=true to print nodes/sec.
+ */
+public class PerftTest {
+    private static final long MAX_NODES = Long.getLong("perft.maxNodes", 5_000_000L);
+    private static final boolean TIMING = Boolean.getBoolean("perft.timing");
+
+    @Test
+    public void startingPosition() {
+        ChessGame game = new ChessGame();
+        runPerft("starting position", game, 20, 400, 8902, 197281, 4865609, 119060324);
+    }
+
+    @Test
+    public void kiwipete() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        runPerft("kiwipete", game, 48, 2039, 97862, 4085603, 193690690);
+    }
+
+    @Test
+    public void rookEndgame() {
+        ChessGame game = ChessGame.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+        runPerft("position 3", game, 14, 191, 2812, 43238, 674624, 11030083);
+    }
+
+    @Test
+    public void promotionsAndPins() {
+        ChessGame game = ChessGame.fromFen("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+        runPerft("position 4", game, 6, 264, 9467, 422333, 15833292);
+    }
+
+    @Test
+    public void underpromotion() {
+        ChessGame game = ChessGame.fromFen("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8");
+        runPerft("position 5", game, 44, 1486, 62379, 2103487, 89941194);
+    }
+
+    @Test
+    public void quietMiddlegame() {
+        ChessGame game = ChessGame.fromFen("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+        runPerft("position 6", game, 46, 2079, 89890, 3894594, 164075551);
+    }
+
+    @Test
+    public void divideAddsUpToPerft() {
+        ChessGame game = new ChessGame();
+        Map<ChessMove, Long> counts = Perft.divide(game, 3);
+        Assertions.assertEquals(20, counts.size());
+        Assertions.assertEquals(Perft.perft(game, 3), counts.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void perftLeavesGameUnchanged() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        long key = game.zobristKey();
+        String fen = game.toFen();
+        Perft.perft(game, 3);
+        Assertions.assertEquals(key, game.zobristKey());
+        Assertions.assertEquals(fen, game.toFen());
+    }
+
+    /**
+     * Checks perft at each depth against its expected count, starting from depth 1
+     */
+    private static void runPerft(String name, ChessGame game, long... expected) {
+        for (int depth = 1; depth <= expected.length && expected[depth - 1] <= MAX_NODES; depth++) {
+            long start = System.nanoTime();
+            long nodes = Perft.perft(game, depth);
+            long elapsed = System.nanoTime() - start;
+            Assertions.assertEquals(expected[depth - 1], nodes, name + " depth " + depth);
+            if (TIMING) {
+                System.out.printf("%s depth %d: %,d nodes in %.3fs (%,.0f nodes/sec)%n",
+                        name, depth, nodes, elapsed / 1e9, nodes / (elapsed / 1e9));
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SharedInstancesTest {
+    @Test
+    public void positionsAreShared() {
+        Assertions.assertSame(ChessPosition.of(3, 4), ChessPosition.of(3, 4));
+        Assertions.assertSame(ChessPosition.of(3, 4), ChessPosition.of(2, 3).add(1, 1));
+        Assertions.assertEquals(new ChessPosition(3, 4), ChessPosition.of(3, 4));
+        Assertions.assertEquals(new ChessPosition(3, 4).hashCode(), ChessPosition.of(3, 4).hashCode());
+
+        ChessPosition offBoard = ChessPosition.of(8, 8).add(1, 0);
+        Assertions.assertEquals(9, offBoard.getRow());
+        Assertions.assertEquals(8, offBoard.getColumn());
+    }
+
+    @Test
+    public void movesAreShared() {
+        ChessPosition start = new ChessPosition(7, 2);
+        ChessPosition end = new ChessPosition(8, 1);
+        Assertions.assertSame(ChessMove.of(start, end, null), ChessMove.of(start, end, null));
+        Assertions.assertSame(ChessMove.of(start, end, ChessPiece.PieceType.KNIGHT),
+                ChessMove.of(start, end, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertEquals(new ChessMove(start, end, ChessPiece.PieceType.KNIGHT),
+                ChessMove.of(start, end, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertEquals(new ChessMove(start, end, null).hashCode(), ChessMove.of(start, end, null).hashCode());
+
+        // Promotions that can't happen in a game still work, they just aren't shared
+        ChessPosition middle = new ChessPosition(4, 4);
+        Assertions.assertEquals(new ChessMove(start, middle, ChessPiece.PieceType.QUEEN),
+                ChessMove.of(start, middle, ChessPiece.PieceType.QUEEN));
+    }
+}